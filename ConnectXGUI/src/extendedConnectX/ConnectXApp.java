@@ -2,11 +2,22 @@
 
 package cpsc2150.extendedConnectX;
 
+import cpsc2150.extendedConnectX.controllers.ConnectXController;
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
 import cpsc2150.extendedConnectX.controllers.SetupController;
+import cpsc2150.extendedConnectX.engine.Puzzle;
+import cpsc2150.extendedConnectX.engine.PuzzleFile;
+import cpsc2150.extendedConnectX.views.ConnectXView;
 import cpsc2150.extendedConnectX.views.SetupView;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
 /**
- * This class is the entry point of our program and just loads the set up screen and controller
+ * This class is the entry point of our program and just loads the set up screen and controller.
+ * Started with {@code --puzzle <file> [index]} it skips the set up screen and opens a puzzle
+ * written by {@link cpsc2150.extendedConnectX.engine.PuzzleGenerator} instead.
  *
  * @version 2.0
  */
@@ -18,11 +29,32 @@ public class ConnectXApp {
      * </p>
      *
      * @param args
-     *            Command-line arguments (there shouldn't be any).
+     *            Command-line arguments (none, or --puzzle and a puzzle file and index).
+     * @throws IOException if the puzzle file can not be read
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if(args.length >= 2 && args[0].equals("--puzzle")) {
+            List<Puzzle> puzzles = PuzzleFile.read(Paths.get(args[1]));
+            int index = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+            if(index < 0 || index >= puzzles.size()) {
+                System.err.println(args[1] + " has " + puzzles.size() + " puzzles");
+                System.exit(2);
+            }
+            openPuzzle(puzzles.get(index));
+            return;
+        }
+
         SetupView screen = new SetupView();
         SetupController controller = new SetupController(screen);
         screen.registerObserver(controller);
     }
+
+    private static void openPuzzle(Puzzle puzzle) {
+        ConnectXView view = new ConnectXView(puzzle.getNumRows(), puzzle.getNumColumns());
+        ConnectXController controller = new ConnectXController(
+                ConnectXGame.createBoard(puzzle.getNumRows(), puzzle.getNumColumns(), puzzle.getNumToWin()),
+                view, puzzle.getNumPlayers());
+        view.registerObserver(controller);
+        controller.loadPuzzle(puzzle);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package cpsc2150.extendedConnectX;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+import cpsc2150.extendedConnectX.models.IGameBoard;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * This class is a command-line entry point that plays a game on the console, with no Swing and
+ * no AWT, so it starts quickly and runs where there is no display. Moves are column numbers read
+ * from standard input, one prompt at a time, or from a move file. The board is printed with
+ * IGameBoard's toString. Flight Recorder events are off unless -Dconnectx.events=true is given.
+ * <p>
+ * The Swing screens are only loaded when {@code --gui} is given; their classes are never touched
+ * otherwise.
+ *
+ * @version 3.0
+ */
+public class ConnectXCli {
+
+    private static final String USAGE = "usage: ConnectXCli rows cols players numToWin [moveFile]\n"
+            + "       ConnectXCli --gui [ConnectXApp arguments]";
+
+    /**
+     * <p>
+     * This is the command-line entry point.
+     * </p>
+     *
+     * @param args
+     *      rows, cols, players and numToWin, then an optional file of moves; or --gui followed by the
+     *      arguments for ConnectXApp
+     * @throws IOException if the moves can not be read
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length > 0 && args[0].equals("--gui")) {
+            String[] rest = new String[args.length - 1];
+            System.arraycopy(args, 1, rest, 0, rest.length);
+            launchGui(rest);
+            return;
+        }
+        //no Flight Recorder events unless asked for, they are slow to load
+        if(System.getProperty("connectx.events") == null) {
+            System.setProperty("connectx.events", "false");
+        }
+        if(args.length < 4 || args.length > 5) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        int rows;
+        int cols;
+        int players;
+        int numWin;
+        try {
+            rows = Integer.parseInt(args[0]);
+            cols = Integer.parseInt(args[1]);
+            players = Integer.parseInt(args[2]);
+            numWin = Integer.parseInt(args[3]);
+        }
+        catch(NumberFormatException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        String errorMsg = ConnectXGame.validate(rows, cols, players, numWin);
+        if(!errorMsg.equals("")) {
+            System.err.println(errorMsg);
+            System.exit(2);
+        }
+
+        boolean interactive = args.length == 4;
+        BufferedReader in = interactive
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(args[4]), StandardCharsets.UTF_8);
+        try {
+            System.exit(play(ConnectXGame.createBoard(rows, cols, numWin), players, in, System.out, interactive));
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * <p>
+     * This plays one game on a board.
+     * </p>
+     *
+     * @param board
+     *      An empty board
+     * @param players
+     *      The number of players
+     * @param in
+     *      Where the moves are read from, one or more column numbers per line, "q" to quit
+     * @param out
+     *      Where the board and messages are written
+     * @param interactive
+     *      true to prompt for every move and let a player choose again after a bad move
+     * @return 0 if the game ended with a win or tie, 1 if the moves ran out or were invalid
+     * @throws IOException if the moves can not be read
+     */
+    public static int play(IGameBoard board, int players, BufferedReader in, PrintStream out, boolean interactive)
+            throws IOException {
+        ConnectXGame game = new ConnectXGame(board, players);
+        if(interactive) {
+            out.println(board);
+        }
+
+        String line = interactive ? prompt(game, in, out) : in.readLine();
+        while(line != null) {
+            for(String token : line.trim().split("\\s+")) {
+                if(token.isEmpty()) {
+                    continue;
+                }
+                if(token.equals("q")) {
+                    return 1;
+                }
+
+                char mover = game.getCurrentPlayerChar();
+                int result;
+                try {
+                    result = game.playMove(Integer.parseInt(token));
+                }
+                catch(NumberFormatException e) {
+                    result = ConnectXGame.BAD_COLUMN;
+                }
+
+                if(result == ConnectXGame.BAD_COLUMN || result == ConnectXGame.COLUMN_FULL) {
+                    out.println(result == ConnectXGame.BAD_COLUMN ? "Column must be between 0 and "
+                            + (board.getNumColumns() - 1) + ", got " + token : "Column " + token + " is full");
+                    if(!interactive) {
+                        return 1;
+                    }
+                    break;
+                }
+                if(result == ConnectXGame.WIN || result == ConnectXGame.TIE) {
+                    out.println(board);
+                    out.println(result == ConnectXGame.WIN ? "Player " + mover + " Won!" : "It's a tie!");
+                    return 0;
+                }
+                if(interactive) {
+                    out.println(board);
+                }
+            }
+            line = interactive ? prompt(game, in, out) : in.readLine();
+        }
+
+        if(!interactive) {
+            out.println(board);
+            out.println("The moves ran out before the game ended. Player " + game.getCurrentPlayerChar()
+                    + " is to move.");
+        }
+        return 1;
+    }
+
+    private static String prompt(ConnectXGame game, BufferedReader in, PrintStream out) throws IOException {
+        out.println("Player " + game.getCurrentPlayerChar() + ", what column do you want to place your marker in?");
+        return in.readLine();
+    }
+
+    //ConnectXApp is only resolved here, so the Swing classes load on demand
+    private static void launchGui(String[] args) throws IOException {
+        ConnectXApp.main(args);
+    }
+}
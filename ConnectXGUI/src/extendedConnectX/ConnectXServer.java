@@ -0,0 +1,63 @@
+package cpsc2150.extendedConnectX;
+
+import cpsc2150.extendedConnectX.server.GameServer;
+import cpsc2150.extendedConnectX.server.SessionRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is the entry point of the headless game server. It hosts many games at once over a
+ * local socket instead of loading the set up screen.
+ *
+ * @version 3.0
+ */
+public class ConnectXServer {
+
+    public static final int DEFAULT_PORT = 2150;
+
+    /**
+     * <p>
+     * This method is the main entry point into the server.
+     * </p>
+     *
+     * @param args
+     *            Command-line arguments: optionally the port to listen on, then a directory and a
+     *            number of seconds to evict games that have been idle that long.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path evictDir = args.length > 1 ? Paths.get(args[1]) : null;
+        long idleSeconds = args.length > 2 ? Long.parseLong(args[2]) : 300;
+
+        if(evictDir != null) {
+            Files.createDirectories(evictDir);
+        }
+        SessionRegistry registry = new SessionRegistry(Runtime.getRuntime().availableProcessors() * 64, evictDir);
+
+        GameServer server = new GameServer(port, registry);
+        server.start();
+        System.out.println("Connect X server listening on localhost:" + server.getPort());
+
+        if(evictDir != null) {
+            ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "connectx-evict");
+                t.setDaemon(true);
+                return t;
+            });
+            evictor.scheduleWithFixedDelay(() -> {
+                try {
+                    registry.evictIdle(idleSeconds * 1000);
+                }
+                catch(IOException e) {
+                    System.err.println("Eviction failed: " + e.getMessage());
+                }
+            }, idleSeconds, idleSeconds, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package cpsc2150.extendedConnectX.controllers;
 
+import cpsc2150.extendedConnectX.engine.ColumnAnalyzer;
+import cpsc2150.extendedConnectX.engine.Puzzle;
+import cpsc2150.extendedConnectX.metrics.Metrics;
+import cpsc2150.extendedConnectX.metrics.MoveEvent;
 import cpsc2150.extendedConnectX.models.*;
 import cpsc2150.extendedConnectX.views.*;
+import java.util.Arrays;
+import javax.swing.SwingUtilities;
 
 /**
  * The controller class will handle communication between our View and our Model ({@link IGameBoard})
@@ -49,14 +55,40 @@ public class ConnectXController {
      * The hard-coded player tokens. These will be used in order according to player count.
      * </p>
      */
-    private char[] playerChar = {'X', 'O', 'Y', 'Z', 'W', 'A', 'B', 'C', 'D', 'E'};
+    private char[] playerChar = ConnectXGame.PLAYER_CHARS;
 
     /**
      * <p>
-     * The current player playing the game.
+     * The rules of the current game, including whose turn it is.
      * </p>
      */
-    private int currentPlayer;
+    private ConnectXGame game;
+
+    /**
+     * <p>
+     * The stream of moves for spectators and other observers besides the screen.
+     * </p>
+     */
+    private final MoveEventBus moveBus = new MoveEventBus();
+
+    /**
+     * <p>
+     * How many plies past each column the hint analysis looks, and the hint shown on a column
+     * button for each ColumnAnalyzer outcome.
+     * </p>
+     */
+    public static final int ANALYSIS_DEPTH = 8;
+    private static final char[] HINTS = {'L', '?', 'D', 'W'};
+
+    /**
+     * <p>
+     * The column analysis shown on the column buttons while hints are turned on. The generation
+     * is bumped every time the position changes so that late results are ignored.
+     * </p>
+     */
+    private ColumnAnalyzer analyzer;
+    private boolean analysisMode;
+    private int analysisGeneration;
 
     /**
      * <p>
@@ -74,6 +106,7 @@ public class ConnectXController {
         this.curGame = model;
         this.screen = view;
         numPlayers = np;
+        game = new ConnectXGame(model, np);
     }
 
     /**
@@ -89,55 +122,168 @@ public class ConnectXController {
      * game hitting any button ]
      */
     public void processButtonClick(int col) {
-        for(int i = 0; i < curGame.getNumColumns(); i++) {
-            if(curGame.checkForWin(i)) {
-                newGame();
-                return;
+        long start = 0;
+        long allocated = 0;
+        if(Metrics.ENABLED) {
+            start = System.nanoTime();
+            allocated = Metrics.allocatedBytes();
+        }
+
+        MoveEvent event = Metrics.EVENTS ? new MoveEvent() : null;
+        if(event != null) {
+            event.begin();
+        }
+        char player = game.getCurrentPlayerChar();
+
+        try {
+            playColumn(col);
+        }
+        finally {
+            if(Metrics.ENABLED) {
+                Metrics.record(Metrics.BUTTON_CLICK, start, allocated);
+            }
+            if(event != null && event.shouldCommit()) {
+                event.column = col;
+                event.player = player;
+                event.boardImplementation = curGame.getClass().getSimpleName();
+                event.commit();
             }
         }
+    }
 
-        if(curGame.checkTie()) {
+    /**
+     * <p>
+     * This plays the current player's token in a column and updates the screen.
+     * </p>
+     *
+     * @param col
+     *      The column of the activated button
+     *
+     * @post [ same as processButtonClick ]
+     */
+    private void playColumn(int col) {
+        if(game.isOver()) {
             newGame();
             return;
         }
 
-        screen.setMessage("It is player " + playerChar[(currentPlayer+1) % numPlayers] + "'s move. " +
+        char mover = game.getCurrentPlayerChar();
+        screen.setMessage("It is player " + playerChar[(game.getCurrentPlayer()+1) % numPlayers] + "'s move. " +
                 "Select a column to place your token in.");
 
-        if(!curGame.checkIfFree(col)) {
-            screen.setMessage("That column is full! Player " + playerChar[currentPlayer % numPlayers] +
-                    ", please choose again.");
-        }
-
-        else if(curGame.checkIfFree(col) && !curGame.checkForWin(col) && !curGame.checkTie()) {
-            //initializing here and making sure conditional in loop ensures it gets placed in the lowest row
-            int row = -1;
+        int result = game.playMove(col);
 
-            for(int i = 0; i < curGame.getNumRows() && row == -1; i++) {
-                BoardPosition pos = new BoardPosition(i, col);
-                if(curGame.whatsAtPos(pos) == ' ') {
-                    row = i;
-                }
-            }
+        if(result == ConnectXGame.COLUMN_FULL) {
+            screen.setMessage("That column is full! Player " + mover + ", please choose again.");
+        }
 
-            curGame.placeToken(playerChar[currentPlayer % numPlayers], col);
-            screen.setMarker(row, col, playerChar[currentPlayer % numPlayers]);
-            currentPlayer++;
+        else if(result != ConnectXGame.BAD_COLUMN) {
+            screen.setMarker(game.getLastRow(), col, mover);
+            moveBus.publish(col, game.getLastRow(), mover, result);
 
-            if(curGame.checkForWin(col)) {
-                currentPlayer--;
-                screen.setMessage("Player " + playerChar[currentPlayer % numPlayers] + " won! To start a new game, " +
+            if(result == ConnectXGame.WIN) {
+                screen.setMessage("Player " + mover + " won! To start a new game, " +
                         "click any button.");
             }
 
-            if(curGame.checkTie()) {
+            if(result == ConnectXGame.TIE) {
                 screen.setMessage("The game has tied! To start a new game, click any button.");
             }
 
+            startAnalysis();
         }
 
     }
 
+    /**
+     * <p>
+     * This sets up a puzzle by replaying its moves on the board and the screen.
+     * </p>
+     *
+     * @param puzzle
+     *      The puzzle to show
+     *
+     * @pre [ the board is empty and has the puzzle's size ] AND puzzle.getNumPlayers() = numPlayers
+     * @post [ the puzzle position is shown with the puzzle's player to move ]
+     */
+    public void loadPuzzle(Puzzle puzzle) {
+        for(int i = 0; i < puzzle.getNumMoves(); i++) {
+            int col = puzzle.getMove(i);
+            char mover = game.getCurrentPlayerChar();
+            game.playMove(col);
+            screen.setMarker(game.getLastRow(), col, mover);
+        }
+
+        screen.setMessage(puzzle + ". Select a column to place your token in.");
+        startAnalysis();
+    }
+
+    /**
+     * <p>
+     * This turns the column hints on or off.
+     * </p>
+     *
+     * @param on
+     *      true to analyse every column after each move
+     *
+     * @post [ if on, the column buttons show the analysis of the current position as it completes,
+     * otherwise they show no hints ]
+     */
+    public void setAnalysisMode(boolean on) {
+        analysisMode = on;
+        startAnalysis();
+    }
+
+    /**
+     * <p>
+     * This cancels any running analysis and, if hints are on and the game is not over, highlights
+     * the must-play columns and starts analysing the current position on the analyzer's threads.
+     * </p>
+     *
+     * @post [ only results for the current position will be shown ]
+     */
+    private void startAnalysis() {
+        int generation = ++analysisGeneration;
+        if(analyzer != null) {
+            analyzer.cancel();
+        }
+
+        //the threat map is kept up to date by every move, so this needs no search
+        long mustPlay = analysisMode ? game.getMustPlayColumns() : 0;
+        for(int c = 0; c < curGame.getNumColumns(); c++) {
+            boolean pending = analysisMode && !game.isOver() && curGame.checkIfFree(c);
+            screen.setColumnHint(c, pending ? '?' : ' ');
+            screen.setColumnThreat(c, (mustPlay >>> c & 1) != 0);
+        }
+
+        if(!analysisMode || game.isOver()) {
+            return;
+        }
+
+        if(analyzer == null) {
+            analyzer = new ColumnAnalyzer(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        }
+
+        //results arrive on pool threads and are shown on the event dispatch thread
+        analyzer.analyze(curGame, Arrays.copyOf(playerChar, numPlayers), game.getCurrentPlayer(), ANALYSIS_DEPTH,
+                (column, outcome, depth) -> SwingUtilities.invokeLater(() -> {
+                    if(generation == analysisGeneration) {
+                        screen.setColumnHint(column, HINTS[outcome]);
+                    }
+                }));
+    }
+
+    /**
+     * <p>
+     * This returns the bus the moves of this game are published on.
+     * </p>
+     *
+     * @return the move event bus
+     */
+    public MoveEventBus getMoveBus() {
+        return moveBus;
+    }
+
     /**
      * <p>
      * This method will start a new game by returning to the setup screen and controller
@@ -146,7 +292,10 @@ public class ConnectXController {
      * @post [ a new game gets started ]
      */
     private void newGame() {
-        //close the current screen
+        //stop the hint analysis and close the current screen
+        if(analyzer != null) {
+            analyzer.close();
+        }
         screen.dispose();
         
         //start back at the set up menu
@@ -0,0 +1,334 @@
+package cpsc2150.extendedConnectX.controllers;
+
+import cpsc2150.extendedConnectX.models.*;
+
+import java.util.Arrays;
+
+/**
+ * This class holds the rules of one game of Extended ConnectX, separate from any screen: whose
+ * turn it is, whether a column can be played, and whether the last move won or tied the game.
+ * It keeps a {@link ThreatMap} of the board up to date with every token it places, so the
+ * must-play columns of the position are always at hand, on boards up to ThreatMap.MAX_COLUMNS
+ * wide.
+ * {@link ConnectXController} uses it to drive the Swing view, and the headless server uses it
+ * for each game it hosts.
+ *
+ * @version 3.0
+ *
+ * @invariant 0 <= currentPlayer < numPlayers
+ */
+public class ConnectXGame {
+
+    /**
+     * <p>
+     * The hard-coded player tokens. These will be used in order according to player count.
+     * </p>
+     */
+    public static final char[] PLAYER_CHARS = {'X', 'O', 'Y', 'Z', 'W', 'A', 'B', 'C', 'D', 'E'};
+
+    /**
+     * <p>
+     * Limits on the setup of a game and the board cutoff for automatically
+     * choosing between GameBoard and GameBoardMem.
+     * </p>
+     */
+    public static final int MAX_SIZE = 20;
+    public static final int MIN_SIZE = 3;
+    public static final int MIN_TO_WIN = 3;
+    public static final int BOARD_CUTOFF = 100;
+
+    /**
+     * <p>
+     * The board implementation to create, from {@code -Dconnectx.board}: "auto" (the default)
+     * chooses by BOARD_CUTOFF, "fast" always uses GameBoard, "mem" always uses GameBoardMem,
+     * "packed" always uses PackedGameBoard and "stack" always uses StackGameBoard.
+     * </p>
+     */
+    public static final String BOARD_TYPE = System.getProperty("connectx.board", "auto");
+
+    /**
+     * <p>
+     * Results of playing a move.
+     * </p>
+     */
+    public static final int MOVE_OK = 0;
+    public static final int COLUMN_FULL = 1;
+    public static final int WIN = 2;
+    public static final int TIE = 3;
+    public static final int GAME_OVER = 4;
+    public static final int BAD_COLUMN = 5;
+
+    private final IGameBoard board;
+    private final ThreatMap threats;
+    private final int numPlayers;
+    private int currentPlayer;
+    private int lastRow = -1;
+    private boolean over;
+
+    /**
+     * <p>
+     * This creates a game on an empty board.
+     * </p>
+     *
+     * @param board
+     *      The board implementation
+     * @param numPlayers
+     *      The number of players for this game
+     *
+     * @pre MIN_PLAYERS <= numPlayers <= MAX_PLAYERS
+     * @post [ player X is to move on board ]
+     */
+    public ConnectXGame(IGameBoard board, int numPlayers) {
+        this(board, numPlayers, 0, false);
+    }
+
+    /**
+     * <p>
+     * This creates a game that continues from a saved board.
+     * </p>
+     *
+     * @param board
+     *      The board implementation, holding the tokens played so far
+     * @param numPlayers
+     *      The number of players for this game
+     * @param currentPlayer
+     *      The index of the player to move
+     * @param over
+     *      Whether the game has already been won or tied
+     *
+     * @pre MIN_PLAYERS <= numPlayers <= MAX_PLAYERS and 0 <= currentPlayer < numPlayers
+     * @post [ the game continues with PLAYER_CHARS[currentPlayer] to move ]
+     */
+    public ConnectXGame(IGameBoard board, int numPlayers, int currentPlayer, boolean over) {
+        this.board = board;
+        this.numPlayers = numPlayers;
+        this.currentPlayer = currentPlayer;
+        this.over = over;
+        threats = board.getNumColumns() <= ThreatMap.MAX_COLUMNS
+                ? new ThreatMap(board, Arrays.copyOf(PLAYER_CHARS, numPlayers)) : null;
+    }
+
+    /**
+     * <p>
+     * This validates the settings for a new game.
+     * </p>
+     *
+     * @return an empty string if the settings are allowed, otherwise the error messages
+     */
+    public static String validate(int rows, int cols, int players, int numWin) {
+        String errorMsg = "";
+        if (rows < MIN_SIZE || rows > MAX_SIZE) {
+            errorMsg += "Rows must be between " + MIN_SIZE + " and " + MAX_SIZE;
+        }
+
+        if (cols < MIN_SIZE || cols > MAX_SIZE) {
+            errorMsg += "Columns must be between " + MIN_SIZE + " and " + MAX_SIZE;
+        }
+
+        if (numWin > rows) {
+            errorMsg += "Can't have more to win than the number of rows";
+        }
+        if (numWin > cols) {
+            errorMsg += "Can't have more to win than the number of columns";
+        }
+
+        if (numWin < MIN_TO_WIN) {
+            errorMsg += "Number to win must be at least " + MIN_TO_WIN;
+        }
+
+        if (players < IGameBoard.MIN_PLAYERS || players > IGameBoard.MAX_PLAYERS) {
+            errorMsg += "Players must be between " + IGameBoard.MIN_PLAYERS + " and " + IGameBoard.MAX_PLAYERS;
+        }
+
+        return errorMsg;
+    }
+
+    /**
+     * <p>
+     * This creates the board implementation for a game of the given size.
+     * </p>
+     *
+     * @return the board named by BOARD_TYPE, or for "auto", a GameBoardMem if the board is too
+     * big, otherwise a GameBoard
+     *
+     * @pre validate(rows, cols, [any valid player count], numWin) is empty
+     */
+    public static IGameBoard createBoard(int rows, int cols, int numWin) {
+        switch (BOARD_TYPE) {
+            case "fast":
+                return new GameBoard(rows, cols, numWin);
+            case "mem":
+                return new GameBoardMem(rows, cols, numWin);
+            case "packed":
+                return new PackedGameBoard(rows, cols, numWin);
+            case "stack":
+                return new StackGameBoard(rows, cols, numWin);
+            default:
+                break;
+        }
+
+        // if the board is too big we'll want the memory efficient version
+        if (rows * cols > BOARD_CUTOFF) {
+            return new GameBoardMem(rows, cols, numWin);
+        } else {
+            return new GameBoard(rows, cols, numWin);
+        }
+    }
+
+    /**
+     * <p>
+     * This plays the current player's token in a column.
+     * </p>
+     *
+     * @param col
+     *      The column to play in
+     * @return MOVE_OK, WIN or TIE if the token was placed, otherwise COLUMN_FULL, GAME_OVER or BAD_COLUMN
+     *
+     * @post [ if the token was placed, getLastRow is its row and the turn passes to the next
+     * player, unless the move won the game ]
+     */
+    public int playMove(int col) {
+        if(over) {
+            return GAME_OVER;
+        }
+        if(col < 0 || col >= board.getNumColumns()) {
+            return BAD_COLUMN;
+        }
+        if(!board.checkIfFree(col)) {
+            return COLUMN_FULL;
+        }
+
+        //the first free row is where placeToken will drop the token
+        int row = -1;
+        for(int i = 0; i < board.getNumRows() && row == -1; i++) {
+            if(board.whatsAtPos(new BoardPosition(i, col)) == ' ') {
+                row = i;
+            }
+        }
+
+        board.placeToken(PLAYER_CHARS[currentPlayer], col);
+        if(threats != null) {
+            threats.placeToken(PLAYER_CHARS[currentPlayer], col);
+        }
+        lastRow = row;
+
+        if(board.checkForWin(col)) {
+            over = true;
+            return WIN;
+        }
+
+        currentPlayer = (currentPlayer + 1) % numPlayers;
+
+        if(board.checkTie()) {
+            over = true;
+            return TIE;
+        }
+
+        return MOVE_OK;
+    }
+
+    /**
+     * <p>
+     * This plays a sequence of moves with the players taking turns from the current player, as
+     * playMove would, but checks for a win or tie once for the whole sequence. This is meant for
+     * replaying recorded games.
+     * </p>
+     *
+     * @param columns
+     *      The columns played
+     * @param offset
+     *      The index of the first move in columns
+     * @param length
+     *      The number of moves
+     * @return the index, counted from offset, of the move that won or tied the game, or -1 if the
+     * game is not over
+     * @throws IllegalArgumentException if a move is not in a column with room, in which case no
+     * move is played
+     *
+     * @pre !isOver() and 0 <= offset <= offset + length <= columns.length
+     * @post [ the moves up to the one returned, or all of them, are played, and getCurrentPlayer,
+     * getLastRow and isOver are as if they were played with playMove ]
+     */
+    public int playMoves(int[] columns, int offset, int length) {
+        if(over) {
+            throw new IllegalStateException("The game is over");
+        }
+
+        char[] order = new char[numPlayers];
+        for(int i = 0; i < numPlayers; i++) {
+            order[i] = PLAYER_CHARS[(currentPlayer + i) % numPlayers];
+        }
+
+        int end = board.placeTokens(order, columns, offset, length);
+        int played = end == -1 ? length : end + 1;
+        if(played == 0) {
+            return end;
+        }
+        for(int i = 0; i < played && threats != null; i++) {
+            threats.placeToken(order[i % numPlayers], columns[offset + i]);
+        }
+
+        int col = columns[offset + played - 1];
+        lastRow = 0;
+        while(lastRow + 1 < board.getNumRows() && board.whatsAtPos(new BoardPosition(lastRow + 1, col)) != ' ') {
+            lastRow++;
+        }
+
+        //like playMove, the turn does not pass after a winning move
+        boolean won = end != -1 && board.checkForWin(col);
+        currentPlayer = (currentPlayer + played - (won ? 1 : 0)) % numPlayers;
+        over = end != -1;
+        return end;
+    }
+
+    /**
+     * <p>
+     * This gets the columns the current player must look at: the ones that win for them now and
+     * the ones the next player would win in, which must be blocked.
+     * </p>
+     *
+     * @return a mask with bit c set for every must-play column c, or 0 if the game is over or the
+     * board is too wide for a threat map
+     */
+    public long getMustPlayColumns() {
+        if(over || threats == null) {
+            return 0;
+        }
+        return threats.getMustPlayColumns(PLAYER_CHARS[currentPlayer], PLAYER_CHARS[(currentPlayer + 1) % numPlayers]);
+    }
+
+    /**
+     * <p>
+     * This gets the threat map of the board.
+     * </p>
+     *
+     * @return the threat map, or null if the board is wider than ThreatMap.MAX_COLUMNS
+     */
+    public ThreatMap getThreats() {
+        return threats;
+    }
+
+    public boolean isOver() {
+        return over;
+    }
+
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public char getCurrentPlayerChar() {
+        return PLAYER_CHARS[currentPlayer];
+    }
+
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    public IGameBoard getBoard() {
+        return board;
+    }
+}
@@ -0,0 +1,67 @@
+package cpsc2150.extendedConnectX.controllers;
+
+/**
+ * This class is one move published on a {@link MoveEventBus}. It is immutable so the same object
+ * can be handed to every subscriber on any thread.
+ *
+ * @version 3.0
+ *
+ * @invariant sequence >= 1
+ */
+public final class GameMove {
+
+    private final long sequence;
+    private final int column;
+    private final int row;
+    private final char player;
+    private final int result;
+
+    /**
+     * <p>
+     * This creates a move.
+     * </p>
+     *
+     * @param sequence
+     *      The position of this move in the bus's stream, starting at 1
+     * @param column
+     *      The column the token was played in
+     * @param row
+     *      The row the token landed in
+     * @param player
+     *      The token of the player who moved
+     * @param result
+     *      The ConnectXGame result of the move: MOVE_OK, WIN or TIE
+     */
+    public GameMove(long sequence, int column, int row, char player, int result) {
+        this.sequence = sequence;
+        this.column = column;
+        this.row = row;
+        this.player = player;
+        this.result = result;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public char getPlayer() {
+        return player;
+    }
+
+    public int getResult() {
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + player + " -> " + row + "," + column;
+    }
+}
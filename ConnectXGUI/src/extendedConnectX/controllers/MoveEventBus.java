@@ -0,0 +1,156 @@
+package cpsc2150.extendedConnectX.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class publishes the moves of a game to any number of {@link MoveListener}s.
+ * <p>
+ * Every subscriber has its own bounded ring buffer and its own delivery thread. Publishing only
+ * offers the move to each buffer and never waits, so a slow subscriber cannot hold up the game:
+ * when its buffer is full, new moves are dropped for that subscriber alone and counted. The
+ * delivery thread hands over every move waiting in the buffer, up to a batch limit, in one call.
+ *
+ * @version 3.0
+ *
+ * @invariant [ sequence numbers are handed out in publish order, starting at 1 ]
+ */
+public class MoveEventBus {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_BATCH = 64;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * <p>
+     * A subscriber's buffer and delivery thread.
+     * </p>
+     */
+    public final class Subscription {
+        private final MoveListener listener;
+        private final ArrayBlockingQueue<GameMove> buffer;
+        private final int maxBatch;
+        private final Thread thread;
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean open = true;
+
+        private Subscription(MoveListener listener, int capacity, int maxBatch) {
+            this.listener = listener;
+            this.buffer = new ArrayBlockingQueue<>(capacity);
+            this.maxBatch = maxBatch;
+            thread = new Thread(this::deliver, "move-bus-" + listener.getClass().getSimpleName());
+            thread.setDaemon(true);
+        }
+
+        /**
+         * <p>
+         * This stops delivery to the listener. Moves still in the buffer are discarded.
+         * </p>
+         */
+        public void cancel() {
+            open = false;
+            subscriptions.remove(this);
+            thread.interrupt();
+        }
+
+        /**
+         * @return the number of moves this subscriber missed because its buffer was full
+         */
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        private void offer(GameMove move) {
+            if(!buffer.offer(move)) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        private void deliver() {
+            List<GameMove> batch = new ArrayList<>(maxBatch);
+            while(open) {
+                try {
+                    batch.add(buffer.take());
+                    buffer.drainTo(batch, maxBatch - 1);
+                    listener.onMoves(batch);
+                }
+                catch(InterruptedException e) {
+                    return;
+                }
+                catch(RuntimeException e) {
+                    //a failing listener only loses its own batch
+                    System.err.println("Move listener failed: " + e);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This subscribes a listener with the default buffer capacity and batch size.
+     * </p>
+     *
+     * @param listener
+     *      The listener to receive moves
+     * @return the subscription, used to cancel it
+     */
+    public Subscription subscribe(MoveListener listener) {
+        return subscribe(listener, DEFAULT_CAPACITY, DEFAULT_BATCH);
+    }
+
+    /**
+     * <p>
+     * This subscribes a listener.
+     * </p>
+     *
+     * @param listener
+     *      The listener to receive moves
+     * @param capacity
+     *      How many undelivered moves to buffer before dropping
+     * @param maxBatch
+     *      The most moves handed to the listener in one call
+     * @return the subscription, used to cancel it
+     *
+     * @pre capacity >= 1 and maxBatch >= 1
+     * @post [ listener receives every move published from now on that fits in its buffer ]
+     */
+    public Subscription subscribe(MoveListener listener, int capacity, int maxBatch) {
+        Subscription subscription = new Subscription(listener, capacity, maxBatch);
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * <p>
+     * This publishes a move to every subscriber without waiting for any of them.
+     * </p>
+     *
+     * @param column
+     *      The column the token was played in
+     * @param row
+     *      The row the token landed in
+     * @param player
+     *      The token of the player who moved
+     * @param result
+     *      The ConnectXGame result of the move
+     * @return the published move
+     */
+    public GameMove publish(int column, int row, char player, int result) {
+        GameMove move = new GameMove(sequence.incrementAndGet(), column, row, player, result);
+        for(Subscription subscription : subscriptions) {
+            subscription.offer(move);
+        }
+        return move;
+    }
+
+    public int getNumSubscribers() {
+        return subscriptions.size();
+    }
+}
@@ -0,0 +1,24 @@
+package cpsc2150.extendedConnectX.controllers;
+
+import java.util.List;
+
+/**
+ * This interface is implemented by anything that wants to observe the moves of a game through a
+ * {@link MoveEventBus}: spectator views, loggers, network relays.
+ *
+ * @version 3.0
+ */
+public interface MoveListener {
+
+    /**
+     * <p>
+     * This is called on the subscriber's own delivery thread with one or more moves, oldest
+     * first. Moves dropped because this listener fell behind show up as gaps in the sequence
+     * numbers.
+     * </p>
+     *
+     * @param moves
+     *      The moves delivered, never empty; the list is only valid during the call
+     */
+    void onMoves(List<GameMove> moves);
+}
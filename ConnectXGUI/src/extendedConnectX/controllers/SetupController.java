@@ -27,18 +27,6 @@ public class SetupController {
      */
     private SetupView view;
 
-    /**
-     * <p>
-     * Constants for minimum size, maximum size, minimum number of
-     * tokens required to win and the board cutoff for automatically
-     * choosing between Gameboard and GameboardMem.
-     * </p>
-     */
-    private final int MAX_SIZE = 20;
-    private final int MIN_SIZE = 3;
-    private final int MIN_TO_WIN = 3;
-    private final int BOARD_CUTOFF = 100;
-
     /**
      * <p>
      * This creates a new setup controller.
@@ -66,38 +54,13 @@ public class SetupController {
      *      Number of tokens in a row required to win
      */
     public void processButtonClick(int rows, int cols, int players, int numWin) {
-        String errorMsg = "";
-        if (rows < MIN_SIZE || rows > MAX_SIZE) {
-            errorMsg += "Rows must be between " + MIN_SIZE + " and " + MAX_SIZE;
-        }
-
-        if (cols < MIN_SIZE || cols > MAX_SIZE) {
-            errorMsg += "Columns must be between " + MIN_SIZE + " and " + MAX_SIZE;
-        }
-
-        if (numWin > rows) {
-            errorMsg += "Can't have more to win than the number of rows";
-        }
-        if (numWin > cols) {
-            errorMsg += "Can't have more to win than the number of columns";
-        }
-
-        if (numWin < MIN_TO_WIN) {
-            errorMsg += "Number to win must be at least " + MIN_TO_WIN;
-        }
+        String errorMsg = ConnectXGame.validate(rows, cols, players, numWin);
 
         if (!errorMsg.equals("")) {
             view.displayError(errorMsg);
         } else {
             view.closeScreen();
-            IGameBoard model;
-            
-            // if the board is too big we'll want the memory efficient version
-            if (rows * cols > BOARD_CUTOFF) {
-                model = new GameBoardMem(rows, cols, numWin);
-            } else {
-                model = new GameBoard(rows, cols, numWin);
-            }
+            IGameBoard model = ConnectXGame.createBoard(rows, cols, numWin);
 
             ConnectXView tview = new ConnectXView(rows, cols);
             ConnectXController tcontroller = new ConnectXController(model, tview, players);
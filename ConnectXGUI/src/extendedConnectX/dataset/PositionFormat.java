@@ -0,0 +1,51 @@
+package cpsc2150.extendedConnectX.dataset;
+
+/**
+ * This class defines the layout of position dataset files, written by {@link PositionWriter} and
+ * read by {@link PositionReader}.
+ * <p>
+ * A file starts with a HEADER_SIZE byte header: i32 magic, u8 version, u8 rows, u8 cols,
+ * u8 numToWin, u8 players. Chunks follow until the end of the file. Each chunk has a
+ * CHUNK_HEADER_SIZE byte header: i32 number of positions, i32 raw length and i32 stored length.
+ * When the stored length is smaller than the raw length the chunk body is deflate compressed,
+ * otherwise it is stored as is.
+ * <p>
+ * A raw chunk body holds its positions column by column, so a reader can scan one field
+ * without touching the others:
+ * <ul>
+ *     <li>boards: boardBytes(rows, cols) bytes per position, two cells per byte, low nibble
+ *     first, cells in row-major order from the bottom row; 0 is empty, otherwise player index + 1</li>
+ *     <li>side: u8 per position, the index of the player to move</li>
+ *     <li>move: u8 per position, the column that player played</li>
+ *     <li>result: u8 per position, the index of the player who won the game, or TIE</li>
+ * </ul>
+ * All integers are big-endian.
+ *
+ * @version 3.0
+ */
+public final class PositionFormat {
+
+    public static final int MAGIC = 0x43584453; //"CXDS"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 9;
+    public static final int CHUNK_HEADER_SIZE = 12;
+    public static final int TIE = 0xFF;
+
+    private PositionFormat() {
+    }
+
+    /**
+     * <p>
+     * This gets the number of bytes one packed board takes.
+     * </p>
+     *
+     * @param rows
+     *      Number of rows of the board
+     * @param cols
+     *      Number of columns of the board
+     * @return the size of a packed board in bytes
+     */
+    public static int boardBytes(int rows, int cols) {
+        return (rows * cols + 1) / 2;
+    }
+}
@@ -0,0 +1,200 @@
+package cpsc2150.extendedConnectX.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * This class reads a {@link PositionFormat} file one chunk at a time. Each chunk is memory mapped
+ * and its fields are read straight out of the mapped bytes by index, so no object is created per
+ * position. Compressed chunks are inflated into one buffer that is reused for every chunk.
+ * <p>
+ * A reader is used by one thread at a time.
+ *
+ * @version 3.0
+ *
+ * @invariant 0 <= [ the index of any position read ] < getChunkSize()
+ */
+public class PositionReader implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private final int numPlayers;
+    private final int boardBytes;
+    private final Inflater inflater = new Inflater();
+    private final ByteBuffer header = ByteBuffer.allocate(PositionFormat.CHUNK_HEADER_SIZE);
+
+    private long offset;
+    private ByteBuffer chunk;
+    private ByteBuffer inflated;
+    private int chunkSize;
+
+    /**
+     * <p>
+     * This opens a dataset file.
+     * </p>
+     *
+     * @param file
+     *      The file to read
+     * @throws IOException if the file can not be read or is not a dataset file
+     */
+    public PositionReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        ByteBuffer fileHeader = ByteBuffer.allocate(PositionFormat.HEADER_SIZE);
+        readFully(fileHeader, 0);
+
+        if(fileHeader.getInt() != PositionFormat.MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not a position dataset");
+        }
+        int version = fileHeader.get() & 0xFF;
+        if(version != PositionFormat.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported dataset version " + version);
+        }
+        rows = fileHeader.get() & 0xFF;
+        cols = fileHeader.get() & 0xFF;
+        numToWin = fileHeader.get() & 0xFF;
+        numPlayers = fileHeader.get() & 0xFF;
+        boardBytes = PositionFormat.boardBytes(rows, cols);
+        offset = PositionFormat.HEADER_SIZE;
+    }
+
+    /**
+     * <p>
+     * This moves on to the next chunk.
+     * </p>
+     *
+     * @return false if there are no more chunks
+     * @throws IOException if the chunk can not be read or is damaged
+     *
+     * @post [ the accessors describe the positions of the new chunk ]
+     */
+    public boolean nextChunk() throws IOException {
+        if(offset + PositionFormat.CHUNK_HEADER_SIZE > channel.size()) {
+            chunkSize = 0;
+            return false;
+        }
+
+        header.clear();
+        readFully(header, offset);
+        int count = header.getInt();
+        int rawLength = header.getInt();
+        int storedLength = header.getInt();
+        offset += PositionFormat.CHUNK_HEADER_SIZE;
+
+        ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, offset, storedLength);
+        offset += storedLength;
+
+        if(storedLength < rawLength) {
+            if(inflated == null || inflated.capacity() < rawLength) {
+                inflated = ByteBuffer.allocate(rawLength);
+            }
+            inflated.clear().limit(rawLength);
+            inflater.reset();
+            inflater.setInput(body);
+            try {
+                while(inflated.hasRemaining() && !inflater.finished()) {
+                    if(inflater.inflate(inflated) == 0 && inflater.needsInput()) {
+                        throw new IOException("Truncated chunk at " + offset);
+                    }
+                }
+            }
+            catch(DataFormatException e) {
+                throw new IOException("Damaged chunk at " + offset, e);
+            }
+            inflated.flip();
+            body = inflated;
+        }
+
+        chunk = body;
+        chunkSize = count;
+        return true;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * <p>
+     * This gets what is in a cell of a position in the current chunk.
+     * </p>
+     *
+     * @param i
+     *      The index of the position in the chunk
+     * @param row
+     *      The row of the cell, 0 at the bottom
+     * @param col
+     *      The column of the cell
+     * @return the index of the player whose token is there, or -1 if the cell is empty
+     *
+     * @pre 0 <= i < getChunkSize() AND 0 <= row < getNumRows() AND 0 <= col < getNumColumns()
+     */
+    public int getCell(int i, int row, int col) {
+        int cell = row * cols + col;
+        int packed = chunk.get(i * boardBytes + (cell >> 1));
+        return ((packed >> ((cell & 1) << 2)) & 0xF) - 1;
+    }
+
+    public int getSideToMove(int i) {
+        return chunk.get(chunkSize * boardBytes + i) & 0xFF;
+    }
+
+    public int getMove(int i) {
+        return chunk.get(chunkSize * (boardBytes + 1) + i) & 0xFF;
+    }
+
+    /**
+     * <p>
+     * This gets the result of the game a position of the current chunk was played in.
+     * </p>
+     *
+     * @param i
+     *      The index of the position in the chunk
+     * @return the index of the player who won, or -1 if the game was tied
+     *
+     * @pre 0 <= i < getChunkSize()
+     */
+    public int getResult(int i) {
+        int result = chunk.get(chunkSize * (boardBytes + 2) + i) & 0xFF;
+        return result == PositionFormat.TIE ? -1 : result;
+    }
+
+    public int getNumRows() {
+        return rows;
+    }
+
+    public int getNumColumns() {
+        return cols;
+    }
+
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of dataset");
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,222 @@
+package cpsc2150.extendedConnectX.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * This class streams self-play positions to a {@link PositionFormat} file. The moves of the game
+ * in progress are kept until its result is known, then copied into the current chunk, and full
+ * chunks are written out through a FileChannel. Memory use is fixed by the chunk size and the
+ * board size, however many positions are written.
+ * <p>
+ * A writer is used by one thread at a time.
+ *
+ * @version 3.0
+ *
+ * @invariant 0 <= chunkCount <= chunkSize AND 0 <= gameMoves <= rows * cols
+ */
+public class PositionWriter implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final int cols;
+    private final int numPlayers;
+    private final int boardBytes;
+    private final int chunkSize;
+    private final Deflater deflater;
+
+    //the game in progress
+    private final byte[] board;
+    private final int[] heights;
+    private final byte[] gameBoards;
+    private final byte[] gameSides;
+    private final byte[] gameMoves;
+    private int numGameMoves;
+    private int side;
+
+    //the chunk being filled, one array per column
+    private final byte[] boards;
+    private final byte[] sides;
+    private final byte[] moves;
+    private final byte[] results;
+    private int chunkCount;
+
+    private final ByteBuffer header = ByteBuffer.allocate(PositionFormat.CHUNK_HEADER_SIZE);
+    private final ByteBuffer raw;
+    private final ByteBuffer compressed;
+    private long positions;
+    private long bytesWritten;
+
+    /**
+     * <p>
+     * This creates a writer, replacing file if it exists.
+     * </p>
+     *
+     * @param file
+     *      The file to write
+     * @param rows
+     *      Number of rows of the boards
+     * @param cols
+     *      Number of columns of the boards
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @param numPlayers
+     *      Number of players in each game
+     * @param chunkSize
+     *      Number of positions per chunk
+     * @param compress
+     *      true to deflate chunks that get smaller by it
+     * @throws IOException if the file can not be created
+     *
+     * @pre [ the board setup is valid ] AND chunkSize >= 1
+     */
+    public PositionWriter(Path file, int rows, int cols, int numToWin, int numPlayers, int chunkSize,
+                          boolean compress) throws IOException {
+        this.cols = cols;
+        this.numPlayers = numPlayers;
+        this.chunkSize = chunkSize;
+        boardBytes = PositionFormat.boardBytes(rows, cols);
+        deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+
+        board = new byte[boardBytes];
+        heights = new int[cols];
+        gameBoards = new byte[rows * cols * boardBytes];
+        gameSides = new byte[rows * cols];
+        gameMoves = new byte[rows * cols];
+
+        boards = new byte[chunkSize * boardBytes];
+        sides = new byte[chunkSize];
+        moves = new byte[chunkSize];
+        results = new byte[chunkSize];
+        raw = ByteBuffer.allocate(chunkSize * (boardBytes + 3));
+        compressed = compress ? ByteBuffer.allocate(raw.capacity()) : null;
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer fileHeader = ByteBuffer.allocate(PositionFormat.HEADER_SIZE);
+        fileHeader.putInt(PositionFormat.MAGIC).put((byte) PositionFormat.VERSION).put((byte) rows)
+                .put((byte) cols).put((byte) numToWin).put((byte) numPlayers).flip();
+        write(fileHeader);
+    }
+
+    /**
+     * <p>
+     * This records that the player to move played column c in the game in progress.
+     * </p>
+     *
+     * @param c
+     *      The column played
+     *
+     * @pre [ c is a legal move in the game in progress ]
+     * @post [ the position before the move is kept until endGame ] AND [ the next player is to move ]
+     */
+    public void recordMove(int c) {
+        System.arraycopy(board, 0, gameBoards, numGameMoves * boardBytes, boardBytes);
+        gameSides[numGameMoves] = (byte) side;
+        gameMoves[numGameMoves] = (byte) c;
+        numGameMoves++;
+
+        int cell = heights[c]++ * cols + c;
+        board[cell >> 1] |= (byte) ((side + 1) << ((cell & 1) << 2));
+        side = (side + 1) % numPlayers;
+    }
+
+    /**
+     * <p>
+     * This ends the game in progress and queues its positions for writing.
+     * </p>
+     *
+     * @param winner
+     *      The index of the player who won, or -1 for a tie
+     * @throws IOException if a full chunk can not be written
+     *
+     * @post [ every position of the game is in a chunk with the result ] AND [ a new game starts ]
+     */
+    public void endGame(int winner) throws IOException {
+        byte result = (byte) (winner < 0 ? PositionFormat.TIE : winner);
+
+        for(int i = 0; i < numGameMoves; i++) {
+            System.arraycopy(gameBoards, i * boardBytes, boards, chunkCount * boardBytes, boardBytes);
+            sides[chunkCount] = gameSides[i];
+            moves[chunkCount] = gameMoves[i];
+            results[chunkCount] = result;
+            if(++chunkCount == chunkSize) {
+                flush();
+            }
+        }
+        positions += numGameMoves;
+
+        Arrays.fill(board, (byte) 0);
+        Arrays.fill(heights, 0);
+        numGameMoves = 0;
+        side = 0;
+    }
+
+    public long getPositions() {
+        return positions;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * <p>
+     * This writes the last partial chunk and closes the file. A game that was not ended is dropped.
+     * </p>
+     *
+     * @throws IOException if the chunk can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        }
+        finally {
+            channel.close();
+            if(deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        if(chunkCount == 0) {
+            return;
+        }
+
+        raw.clear();
+        raw.put(boards, 0, chunkCount * boardBytes).put(sides, 0, chunkCount).put(moves, 0, chunkCount)
+                .put(results, 0, chunkCount).flip();
+        int rawLength = raw.remaining();
+
+        ByteBuffer body = raw;
+        if(deflater != null) {
+            deflater.reset();
+            deflater.setInput(raw.array(), 0, rawLength);
+            deflater.finish();
+            int length = deflater.deflate(compressed.array(), 0, rawLength);
+            //keep the raw chunk when deflate did not finish within the raw size
+            if(deflater.finished() && length < rawLength) {
+                compressed.clear().limit(length);
+                body = compressed;
+            }
+        }
+
+        header.clear();
+        header.putInt(chunkCount).putInt(rawLength).putInt(body.remaining()).flip();
+        write(header);
+        write(body);
+        chunkCount = 0;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+    }
+}
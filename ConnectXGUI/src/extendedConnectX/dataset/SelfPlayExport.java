@@ -0,0 +1,113 @@
+package cpsc2150.extendedConnectX.dataset;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+import cpsc2150.extendedConnectX.engine.SearchBoard;
+import cpsc2150.extendedConnectX.engine.Strategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * This class plays self-play games with one {@link Strategy} in every seat and streams every
+ * position reached to a dataset file, then reads the file back to check it and report how fast
+ * it can be scanned. Every game starts with a few random moves so that deterministic strategies
+ * still produce different games.
+ *
+ * @version 3.0
+ */
+public class SelfPlayExport {
+
+    private static final int OPENING_PLIES = 4;
+
+    /**
+     * <p>
+     * This is the export entry point.
+     * </p>
+     *
+     * @param args
+     *      file rows cols numToWin players games [strategy=greedy] [seed=2150] [chunkSize=65536]
+     *      [compress=true]
+     * @throws IOException if the dataset can not be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 6) {
+            System.err.println("usage: SelfPlayExport file rows cols numToWin players games [strategy=greedy] "
+                    + "[seed=2150] [chunkSize=65536] [compress=true]");
+            System.exit(2);
+        }
+
+        Path file = Paths.get(args[0]);
+        int rows = Integer.parseInt(args[1]);
+        int cols = Integer.parseInt(args[2]);
+        int numToWin = Integer.parseInt(args[3]);
+        int players = Integer.parseInt(args[4]);
+        long games = Long.parseLong(args[5]);
+        String strategy = args.length > 6 ? args[6] : "greedy";
+        long seed = args.length > 7 ? Long.parseLong(args[7]) : 2150;
+        int chunkSize = args.length > 8 ? Integer.parseInt(args[8]) : 65536;
+        boolean compress = args.length <= 9 || Boolean.parseBoolean(args[9]);
+
+        String error = ConnectXGame.validate(rows, cols, players, numToWin);
+        if(!error.equals("")) {
+            System.err.println(error);
+            System.exit(2);
+        }
+
+        char[] tokens = Arrays.copyOf(ConnectXGame.PLAYER_CHARS, players);
+        long start = System.nanoTime();
+        long positions;
+        long bytes;
+        try(PositionWriter writer = new PositionWriter(file, rows, cols, numToWin, players, chunkSize, compress)) {
+            for(long g = 0; g < games; g++) {
+                SearchBoard board = new SearchBoard(ConnectXGame.createBoard(rows, cols, numToWin), tokens, 0);
+                Strategy opening = Strategy.create("random", seed ^ g);
+                Strategy[] seats = new Strategy[players];
+                for(int p = 0; p < players; p++) {
+                    seats[p] = Strategy.create(strategy, seed + g * players + p);
+                }
+
+                int winner = -1;
+                while(winner < 0 && !board.isFull()) {
+                    int mover = board.getCurrentPlayer();
+                    Strategy seat = board.getNumMoves() < OPENING_PLIES ? opening : seats[mover];
+                    int c = seat.chooseMove(board);
+                    writer.recordMove(c);
+                    if(board.play(c)) {
+                        winner = mover;
+                    }
+                }
+                writer.endGame(winner);
+            }
+            positions = writer.getPositions();
+            bytes = writer.getBytesWritten();
+        }
+        double writeSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d positions, %d bytes (%.2f bytes/position) in %.1f s%n", games, positions,
+                bytes, (double) bytes / Math.max(positions, 1), writeSeconds);
+
+        start = System.nanoTime();
+        long read = 0;
+        long[] wins = new long[players + 1];
+        try(PositionReader reader = new PositionReader(file)) {
+            while(reader.nextChunk()) {
+                for(int i = 0; i < reader.getChunkSize(); i++) {
+                    wins[reader.getResult(i) + 1]++;
+                }
+                read += reader.getChunkSize();
+            }
+        }
+        double readSeconds = (System.nanoTime() - start) / 1e9;
+        if(read != positions) {
+            System.err.println("Read " + read + " positions, expected " + positions);
+            System.exit(1);
+        }
+        System.out.printf("read back in %.2f s (%.1f M positions/s), positions per result: tie %d",
+                readSeconds, read / readSeconds / 1e6, wins[0]);
+        for(int p = 0; p < players; p++) {
+            System.out.printf(", %c %d", tokens[p], wins[p + 1]);
+        }
+        System.out.println();
+    }
+}
@@ -0,0 +1,264 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.metrics.Metrics;
+import cpsc2150.extendedConnectX.metrics.SearchEvent;
+
+/**
+ * A class that searches a two player position with negamax alpha-beta and iterative deepening.
+ * Every position is scored from the point of view of the player to move. Wins are scored as
+ * WIN_SCORE minus the distance from the root, so quicker wins are preferred.
+ *
+ * The order in which moves are tried is decided by a {@link MoveOrderer}, and searched
+ * positions are stored in a {@link TranspositionTable} under their canonical key, so a position
+ * and its mirror image share one entry.
+ *
+ * When the player to move can win at once only the winning moves are searched, and when the
+ * opponent could only the moves that block them, as read from the board's threat map.
+ *
+ * @version 3.0
+ *
+ * @invariant nodes >= 0
+ *
+ */
+public class AlphaBetaSearch {
+
+    public static final long WIN_SCORE = 1L << 60;
+
+    //scores above this are wins found within the search horizon
+    private static final long WIN_BOUND = WIN_SCORE - 100000;
+
+    private final boolean useOrdering;
+    private TranspositionTable table;
+    private MoveOrderer orderer;
+    private int[][] moveBuffers;
+
+    private long nodes;
+    private int bestMove = -1;
+    private int rootMove = -1;
+    private long bestScore;
+    private int depthReached;
+
+    /**
+     * <p>
+     * This creates a search with a transposition table of its own, which is allocated by the
+     * first search.
+     * </p>
+     *
+     * @param useOrdering
+     *      false to try moves left to right, used to measure what move ordering is worth
+     */
+    public AlphaBetaSearch(boolean useOrdering) {
+        this(useOrdering, null);
+    }
+
+    /**
+     * <p>
+     * This creates a search that uses a given transposition table, which may be shared with
+     * searches running on other threads.
+     * </p>
+     *
+     * @param useOrdering
+     *      false to try moves left to right, used to measure what move ordering is worth
+     * @param table
+     *      The transposition table to use, or null for one of its own
+     */
+    public AlphaBetaSearch(boolean useOrdering, TranspositionTable table) {
+        this.useOrdering = useOrdering;
+        this.table = table;
+    }
+
+    /**
+     * <p>
+     * This searches the position with iterative deepening up to maxDepth plies.
+     * </p>
+     *
+     * @param board
+     *      The position to search, restored when the search returns
+     * @param maxDepth
+     *      The deepest search to run
+     * @return the best column for the player to move, or -1 if there are no legal moves
+     *
+     * @pre maxDepth >= 1 and [ board has exactly two players ]
+     * @post [ getBestMove, getScore, getNodes and getDepthReached describe this search ]
+     */
+    public int search(SearchBoard board, int maxDepth) {
+        long start = 0;
+        long allocated = 0;
+        if(Metrics.ENABLED) {
+            start = System.nanoTime();
+            allocated = Metrics.allocatedBytes();
+        }
+        SearchEvent event = Metrics.EVENTS ? new SearchEvent() : null;
+        if(event != null) {
+            event.begin();
+        }
+
+        int numCells = board.getNumRows() * board.getNumColumns();
+        orderer = new MoveOrderer(board.getNumRows(), board.getNumColumns(), board.getNumPlayers(), useOrdering);
+        moveBuffers = new int[numCells + 1][board.getNumColumns()];
+        if(table == null) {
+            table = new TranspositionTable();
+        }
+        table.newSearch();
+        long probes = table.getProbes();
+        long hits = table.getHits();
+        nodes = 0;
+        bestMove = -1;
+        rootMove = -1;
+        bestScore = 0;
+        depthReached = 0;
+
+        int limit = Math.min(maxDepth, numCells - board.getNumMoves());
+        for(int depth = 1; depth <= limit; depth++) {
+            bestScore = negamax(board, depth, 0, -WIN_SCORE - 1, WIN_SCORE + 1);
+            bestMove = rootMove;
+            depthReached = depth;
+
+            //a forced result will not change with a deeper search
+            if(Math.abs(bestScore) > WIN_BOUND) {
+                break;
+            }
+        }
+
+        if(Metrics.ENABLED) {
+            Metrics.record(Metrics.AI_MOVE, start, allocated);
+        }
+        if(event != null && event.shouldCommit()) {
+            event.engine = "alpha-beta";
+            event.depth = depthReached;
+            event.nodes = nodes;
+            probes = table.getProbes() - probes;
+            event.ttHitRate = probes == 0 ? 0 : (double) (table.getHits() - hits) / probes;
+            event.bestMove = bestMove;
+            event.commit();
+        }
+        return bestMove;
+    }
+
+    private long negamax(SearchBoard board, int depth, int ply, long alpha, long beta) {
+        nodes++;
+
+        if(board.isFull()) {
+            return 0;
+        }
+        if(depth == 0) {
+            return board.evaluate();
+        }
+
+        long originalAlpha = alpha;
+        int ttMove = -1;
+        long entry = table.probe(board.getCanonicalKey());
+        if(entry != 0) {
+            int move = TranspositionTable.move(entry);
+            ttMove = move < 0 ? -1 : board.canonicalColumn(move);
+            //the root always searches, so it records its best move for this depth
+            if(TranspositionTable.depth(entry) >= depth && ply > 0) {
+                long value = fromTable(TranspositionTable.value(entry), ply);
+                int flag = TranspositionTable.flag(entry);
+                if(flag == TranspositionTable.EXACT) {
+                    return value;
+                }
+                else if(flag == TranspositionTable.LOWER) {
+                    alpha = Math.max(alpha, value);
+                }
+                else {
+                    beta = Math.min(beta, value);
+                }
+                if(alpha >= beta) {
+                    return value;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int n = orderer.order(board, ply, ttMove, moves);
+        long forced = board.getForcedColumns();
+        if(forced != 0) {
+            n = MoveOrderer.keep(forced, moves, n);
+        }
+        long best = -WIN_SCORE - 1;
+        int bestCol = -1;
+
+        for(int i = 0; i < n; i++) {
+            int c = moves[i];
+            long score;
+
+            if(board.play(c)) {
+                score = WIN_SCORE - ply;
+            }
+            else {
+                score = -negamax(board, depth - 1, ply + 1, -beta, -alpha);
+            }
+            board.undo();
+
+            if(score > best) {
+                best = score;
+                bestCol = c;
+            }
+            if(best > alpha) {
+                alpha = best;
+            }
+            if(alpha >= beta) {
+                orderer.recordCutoff(board.getCurrentPlayer(), c, ply, depth);
+                break;
+            }
+        }
+
+        int flag = best <= originalAlpha ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(board.getCanonicalKey(), toTable(best, ply), depth, flag, board.canonicalColumn(bestCol));
+        if(ply == 0) {
+            rootMove = bestCol;
+        }
+
+        return best;
+    }
+
+    //win scores are stored relative to the stored position, not the root
+    private static long toTable(long value, int ply) {
+        if(value > WIN_BOUND) {
+            return value + ply;
+        }
+        if(value < -WIN_BOUND) {
+            return value - ply;
+        }
+        return value;
+    }
+
+    private static long fromTable(long value, int ply) {
+        if(value > WIN_BOUND) {
+            return value - ply;
+        }
+        if(value < -WIN_BOUND) {
+            return value + ply;
+        }
+        return value;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public long getScore() {
+        return bestScore;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public int getDepthReached() {
+        return depthReached;
+    }
+
+    /**
+     * <p>
+     * This gets the transposition table of the search.
+     * </p>
+     *
+     * @return the table, or null if the search has its own and has not searched yet
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+}
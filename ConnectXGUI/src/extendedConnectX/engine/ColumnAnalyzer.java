@@ -0,0 +1,157 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.models.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A class that works out, for every column, whether dropping a token there wins, loses or draws
+ * for the player to move with best play within a depth limit. Every column is analysed as its own
+ * task on a thread pool, against its own copy of the board, with a deepening search that reports
+ * a result after every depth it completes, using a {@link ParanoidSolver}.
+ * <p>
+ * With more than two players the analysis is paranoid: every other player is assumed to play
+ * against the player to move.
+ *
+ * @version 3.0
+ *
+ * @invariant [ at most one analysis is running; starting another cancels the previous one ]
+ */
+public class ColumnAnalyzer implements AutoCloseable {
+
+    /**
+     * <p>
+     * Outcomes, ordered from worst to best for the player to move. UNKNOWN means the depth
+     * limit was reached first; it ranks below DRAW so the analysis never counts on it.
+     * </p>
+     */
+    public static final int LOSS = 0;
+    public static final int UNKNOWN = 1;
+    public static final int DRAW = 2;
+    public static final int WIN = 3;
+
+    /**
+     * <p>
+     * Receives the results of an analysis. Called on a pool thread.
+     * </p>
+     */
+    public interface Callback {
+        /**
+         * @param column
+         *      The column analysed
+         * @param outcome
+         *      LOSS, UNKNOWN, DRAW or WIN for the player to move
+         * @param depth
+         *      How many plies after the move were searched
+         */
+        void onResult(int column, int outcome, int depth);
+    }
+
+    private final ExecutorService pool;
+    private final List<Future<?>> running = new ArrayList<>();
+    private AtomicBoolean cancelled = new AtomicBoolean();
+
+    /**
+     * <p>
+     * This creates an analyzer.
+     * </p>
+     *
+     * @param threads
+     *      The number of columns analysed at the same time
+     */
+    public ColumnAnalyzer(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "column-analysis-" + count.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * <p>
+     * This starts analysing every playable column, cancelling any analysis still running.
+     * </p>
+     *
+     * @param board
+     *      The position, read once here; it may change as soon as this returns
+     * @param players
+     *      The player tokens in turn order
+     * @param current
+     *      The index of the player to move
+     * @param maxDepth
+     *      The deepest search after each move
+     * @param callback
+     *      Receives each column's result every time a deeper search finishes
+     *
+     * @pre [ called from the thread that changes board ]
+     */
+    public synchronized void analyze(IGameBoard board, char[] players, int current, int maxDepth,
+                                     Callback callback) {
+        cancel();
+        AtomicBoolean flag = new AtomicBoolean();
+        cancelled = flag;
+
+        BoardSnapshot snapshot = board.snapshot();
+        for(int c = 0; c < snapshot.getNumColumns(); c++) {
+            if(snapshot.checkIfFree(c)) {
+                int col = c;
+                running.add(pool.submit(() -> analyzeColumn(snapshot, players, current, col, maxDepth, flag, callback)));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This stops the running analysis. Columns that have not reported yet will not report.
+     * </p>
+     */
+    public synchronized void cancel() {
+        cancelled.set(true);
+        for(Future<?> task : running) {
+            task.cancel(true);
+        }
+        running.clear();
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        pool.shutdownNow();
+    }
+
+    private static void analyzeColumn(BoardSnapshot snapshot, char[] players, int current, int col, int maxDepth,
+                                      AtomicBoolean cancelled, Callback callback) {
+        SearchBoard board = new SearchBoard(snapshot.copy(), players, current);
+        ParanoidSolver solver = new ParanoidSolver(board, maxDepth, cancelled);
+
+        if(board.play(col)) {
+            callback.onResult(col, WIN, 0);
+            return;
+        }
+
+        try {
+            for(int depth = 1; depth <= maxDepth; depth++) {
+                int outcome = solver.solve(board, depth, current);
+                if(cancelled.get()) {
+                    return;
+                }
+                callback.onResult(col, outcome, depth);
+                if(outcome != UNKNOWN) {
+                    return;
+                }
+            }
+        }
+        catch(CancellationException e) {
+            //a newer position is being analysed
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package cpsc2150.extendedConnectX.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * A strategy that looks one move ahead: it wins when it can, and otherwise plays the column
+ * with the best window evaluation for itself, breaking ties at random.
+ *
+ * @version 3.0
+ */
+public class GreedyStrategy implements Strategy {
+
+    private final SplittableRandom random;
+
+    public GreedyStrategy(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int chooseMove(SearchBoard board) {
+        int best = -1;
+        long bestScore = Long.MIN_VALUE;
+        int ties = 0;
+
+        for(int c = 0; c < board.getNumColumns(); c++) {
+            if(!board.canPlay(c)) {
+                continue;
+            }
+            boolean wins = board.play(c);
+            //the position is scored for the next player, so negate it
+            long score = wins ? Long.MAX_VALUE : -board.evaluate();
+            board.undo();
+
+            if(score > bestScore) {
+                best = c;
+                bestScore = score;
+                ties = 1;
+            }
+            else if(score == bestScore && random.nextInt(++ties) == 0) {
+                best = c;
+            }
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,131 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class checks that the search treats mirror images alike. It plays random openings, builds
+ * each position and its mirror image, and checks that the two get the same canonical key, that
+ * searching them gives the same score, and that the best moves are mirror images of each other.
+ * When two moves are equally good the searches may pick different ones, so a best move that is
+ * not mirrored only counts as a failure if it is worse than the mirrored move.
+ *
+ * @version 3.0
+ */
+public class MirrorCheck {
+
+    private static final char[] PLAYERS = {'X', 'O'};
+
+    //rows, cols, numToWin, depth
+    private static final int[][] BOARDS = {
+            {6, 7, 4, 7},
+            {6, 6, 4, 7},
+            {8, 9, 5, 5},
+            {5, 4, 3, 9},
+    };
+
+    /**
+     * <p>
+     * This is the check entry point.
+     * </p>
+     *
+     * @param args
+     *      [positions per board=50] [seed=2150]
+     */
+    public static void main(String[] args) {
+        int perBoard = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        SplittableRandom random = new SplittableRandom(args.length > 1 ? Long.parseLong(args[1]) : 2150);
+
+        int checked = 0;
+        int mirrored = 0;
+        int ties = 0;
+        int failures = 0;
+        for(int[] config : BOARDS) {
+            for(int i = 0; i < perBoard; i++) {
+                SearchBoard board = newBoard(config);
+                SearchBoard mirror = newBoard(config);
+                int plies = random.nextInt(config[0] * config[1] / 3);
+                for(int p = 0; p < plies && !board.isFull(); p++) {
+                    int c = random.nextInt(config[1]);
+                    if(!board.canPlay(c)) {
+                        continue;
+                    }
+                    boolean won = board.play(c);
+                    mirror.play(config[1] - 1 - c);
+                    if(won) {
+                        board.undo();
+                        mirror.undo();
+                    }
+                }
+                if(board.isFull()) {
+                    continue;
+                }
+
+                checked++;
+                if(board.getCanonicalKey() != mirror.getCanonicalKey() || board.getKey() != mirror.getMirrorKey()) {
+                    System.out.println("key mismatch after " + board.getNumMoves() + " moves on " + name(config));
+                    failures++;
+                    continue;
+                }
+
+                AlphaBetaSearch search = new AlphaBetaSearch(true);
+                int move = search.search(board, config[3]);
+                long score = search.getScore();
+                AlphaBetaSearch mirrorSearch = new AlphaBetaSearch(true);
+                int mirrorMove = mirrorSearch.search(mirror, config[3]);
+
+                if(score != mirrorSearch.getScore()) {
+                    System.out.println("score " + score + " vs " + mirrorSearch.getScore() + " on " + name(config));
+                    failures++;
+                }
+                else if(mirrorMove == config[1] - 1 - move) {
+                    mirrored++;
+                }
+                else if(valueOf(board, config[1] - 1 - mirrorMove, config[3]) == valueOf(board, move, config[3])) {
+                    ties++;
+                }
+                else {
+                    System.out.println("move " + move + " vs mirrored " + mirrorMove + " on " + name(config));
+                    failures++;
+                }
+            }
+        }
+
+        System.out.printf("%d positions: %d mirrored moves, %d equal alternatives, %d failures%n",
+                checked, mirrored, ties, failures);
+        if(failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static SearchBoard newBoard(int[] config) {
+        return new SearchBoard(ConnectXGame.createBoard(config[0], config[1], config[2]), PLAYERS, 0);
+    }
+
+    //the score of playing c, searched to the same total depth as the root search
+    private static long valueOf(SearchBoard board, int c, int depth) {
+        boolean won = board.play(c);
+        long value;
+        if(won) {
+            value = AlphaBetaSearch.WIN_SCORE;
+        }
+        else if(board.isFull()) {
+            value = 0;
+        }
+        else if(depth == 1) {
+            value = -board.evaluate();
+        }
+        else {
+            AlphaBetaSearch search = new AlphaBetaSearch(true);
+            search.search(board, depth - 1);
+            value = -search.getScore();
+        }
+        board.undo();
+        return value;
+    }
+
+    private static String name(int[] config) {
+        return config[0] + "x" + config[1] + " k" + config[2];
+    }
+}
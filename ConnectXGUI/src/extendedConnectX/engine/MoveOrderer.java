@@ -0,0 +1,198 @@
+package cpsc2150.extendedConnectX.engine;
+
+import java.util.Arrays;
+
+/**
+ * A class that decides the order in which a search tries the moves of a position. Searching
+ * good moves first lets alpha-beta cut off the remaining moves sooner.
+ *
+ * Moves are ranked by, in order: the transposition table's best move, the two killer moves of
+ * the ply (moves that caused a cutoff at the same depth in a sibling position), the history
+ * score of the move for the player to move, and finally distance from the center column.
+ *
+ * With ordering disabled the moves are tried from left to right.
+ *
+ * @version 3.0
+ *
+ * @invariant
+ * killers.length = scores.length = [number of cells] + 1
+ * history.length = [number of players]
+ * history[p].length = [number of columns]
+ *
+ */
+public class MoveOrderer {
+
+    private static final long TT_BONUS = Long.MAX_VALUE / 2;
+    private static final long KILLER_BONUS = Long.MAX_VALUE / 4;
+
+    private final boolean enabled;
+    private final int numCol;
+    private final int[] centerOrder;
+    private final int[][] killers;
+    private final long[][] scores;
+    private final long[][] history;
+
+    /**
+     * <p>
+     * This creates a move orderer for a board size.
+     * </p>
+     *
+     * @param numRow
+     *      The number of rows on the board
+     * @param numCol
+     *      The number of columns on the board
+     * @param numPlayers
+     *      The number of players
+     * @param enabled
+     *      false to try moves left to right with no heuristics
+     */
+    public MoveOrderer(int numRow, int numCol, int numPlayers, boolean enabled) {
+        this.enabled = enabled;
+        this.numCol = numCol;
+        killers = new int[numRow * numCol + 1][2];
+        //one score buffer per ply, so ordering a node allocates nothing
+        scores = new long[numRow * numCol + 1][numCol];
+        history = new long[numPlayers][numCol];
+        clear();
+
+        //center column first, then alternating outwards
+        centerOrder = new int[numCol];
+        int mid = (numCol - 1) / 2;
+        for(int i = 0, left = mid, right = mid + 1; i < numCol; i++) {
+            if((i % 2 == 0 && left >= 0) || right >= numCol) {
+                centerOrder[i] = left--;
+            }
+            else {
+                centerOrder[i] = right++;
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This writes the legal moves of a position into out, best first.
+     * </p>
+     *
+     * @param board
+     *      The position
+     * @param ply
+     *      Distance from the root of the search
+     * @param ttMove
+     *      The transposition table's best move for the position, or -1
+     * @param out
+     *      Array of at least numCol entries to receive the moves
+     * @return the number of legal moves written
+     */
+    public int order(SearchBoard board, int ply, int ttMove, int[] out) {
+        int n = 0;
+
+        if(!enabled) {
+            for(int c = 0; c < numCol; c++) {
+                if(board.canPlay(c)) {
+                    out[n++] = c;
+                }
+            }
+            return n;
+        }
+
+        long[] scores = this.scores[ply];
+        long[] playerHistory = history[board.getCurrentPlayer()];
+
+        for(int i = 0; i < numCol; i++) {
+            int c = centerOrder[i];
+            if(!board.canPlay(c)) {
+                continue;
+            }
+
+            //the center rank only breaks ties between equal history scores
+            long score = playerHistory[c] * numCol + (numCol - i);
+            if(c == ttMove) {
+                score += TT_BONUS;
+            }
+            else if(c == killers[ply][0]) {
+                score += KILLER_BONUS;
+            }
+            else if(c == killers[ply][1]) {
+                score += KILLER_BONUS / 2;
+            }
+
+            //insertion sort, there are never more than MAX_COL moves
+            int j = n;
+            while(j > 0 && scores[j - 1] < score) {
+                scores[j] = scores[j - 1];
+                out[j] = out[j - 1];
+                j--;
+            }
+            scores[j] = score;
+            out[j] = c;
+            n++;
+        }
+
+        return n;
+    }
+
+    /**
+     * <p>
+     * This drops the moves that are not in a set of columns, keeping the order of the rest.
+     * </p>
+     *
+     * @param columns
+     *      A mask with bit c set for every column c to keep
+     * @param moves
+     *      The moves, as written by order
+     * @param n
+     *      The number of moves
+     * @return the number of moves kept at the start of moves
+     */
+    public static int keep(long columns, int[] moves, int n) {
+        int kept = 0;
+        for(int i = 0; i < n; i++) {
+            if((columns >>> moves[i] & 1) != 0) {
+                moves[kept++] = moves[i];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * <p>
+     * This records that a move caused a beta cutoff, updating the killer and history tables.
+     * </p>
+     *
+     * @param player
+     *      The index of the player who made the move
+     * @param c
+     *      The column of the move
+     * @param ply
+     *      Distance from the root of the search
+     * @param depth
+     *      Remaining depth of the search at the cutoff
+     */
+    public void recordCutoff(int player, int c, int ply, int depth) {
+        if(!enabled) {
+            return;
+        }
+
+        if(killers[ply][0] != c) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = c;
+        }
+
+        history[player][c] += (long) depth * depth;
+    }
+
+    /**
+     * <p>
+     * This forgets all killer moves and history scores.
+     * </p>
+     */
+    public void clear() {
+        for(int[] killer : killers) {
+            killer[0] = -1;
+            killer[1] = -1;
+        }
+        for(long[] playerHistory : history) {
+            Arrays.fill(playerHistory, 0);
+        }
+    }
+}
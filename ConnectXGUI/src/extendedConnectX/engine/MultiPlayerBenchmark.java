@@ -0,0 +1,97 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+
+import java.util.Arrays;
+
+/**
+ * This class measures {@link MultiPlayerSearch} with 3, 4 and 10 players. For every setup and
+ * search model, one seat is given the search and every other seat plays {@link GreedyStrategy};
+ * the searching seat moves round the table from game to game. It prints the nodes searched per
+ * second and the share of games the searching seat won, next to the share a greedy player wins
+ * in the same seat, as a measure of decision quality. Searches run in the anytime mode with a time
+ * limit per move by default, so the depth column shows the average depth finished.
+ *
+ * @version 3.0
+ */
+public class MultiPlayerBenchmark {
+
+    //players, rows, cols, numToWin
+    private static final int[][] SETUPS = {
+            {3, 7, 8, 4},
+            {4, 8, 9, 4},
+            {10, 12, 14, 4},
+    };
+
+    private static final String[] MODES = {"greedy", "maxn", "paranoid"};
+
+    /**
+     * <p>
+     * This is the benchmark entry point.
+     * </p>
+     *
+     * @param args
+     *      [rounds=2] [depth=6] [millis per move=100], a time limit of 0 searches to the full depth
+     */
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 100;
+
+        System.out.printf("%-16s %-9s %6s %12s %10s %8s %8s%n", "setup", "search", "games", "nodes", "nodes/s",
+                "depth", "won");
+        for(int[] setup : SETUPS) {
+            String name = setup[0] + "p " + setup[1] + "x" + setup[2] + " k" + setup[3];
+            for(String mode : MODES) {
+                String spec = mode.equals("greedy") ? mode : mode + ":" + depth + ":" + millis;
+                run(name, setup, mode, spec, rounds);
+            }
+        }
+    }
+
+    private static void run(String name, int[] setup, String mode, String spec, int rounds) {
+        int players = setup[0];
+        char[] tokens = Arrays.copyOf(ConnectXGame.PLAYER_CHARS, players);
+        int games = rounds * players;
+        int won = 0;
+        long nodes = 0;
+        long nanos = 0;
+        long depths = 0;
+        long searches = 0;
+
+        for(int g = 0; g < games; g++) {
+            int seat = g % players;
+            SearchBoard board = new SearchBoard(ConnectXGame.createBoard(setup[1], setup[2], setup[3]), tokens, 0);
+            Strategy[] strategies = new Strategy[players];
+            for(int p = 0; p < players; p++) {
+                strategies[p] = p == seat ? Strategy.create(spec, g) : new GreedyStrategy(g * 31L + p);
+            }
+
+            int winner = -1;
+            while(winner < 0 && !board.isFull()) {
+                int mover = board.getCurrentPlayer();
+                long start = System.nanoTime();
+                int c = strategies[mover].chooseMove(board);
+                if(mover == seat) {
+                    nanos += System.nanoTime() - start;
+                    if(strategies[mover] instanceof MultiPlayerStrategy) {
+                        MultiPlayerSearch search = ((MultiPlayerStrategy) strategies[mover]).getSearch();
+                        nodes += search.getNodes();
+                        depths += search.getDepthReached();
+                        searches++;
+                    }
+                }
+                if(board.play(c)) {
+                    winner = mover;
+                }
+            }
+            if(winner == seat) {
+                won++;
+            }
+        }
+
+        System.out.printf("%-16s %-9s %6d %12d %10.0f %8s %7.0f%%%n", name, mode, games, nodes,
+                nanos == 0 ? 0 : nodes / (nanos / 1e9), searches == 0 ? "-" : String.format("%.1f",
+                        (double) depths / searches), 100.0 * won / games);
+    }
+}
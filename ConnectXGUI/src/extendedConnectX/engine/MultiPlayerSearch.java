@@ -0,0 +1,290 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.metrics.Metrics;
+import cpsc2150.extendedConnectX.metrics.SearchEvent;
+
+import java.util.Arrays;
+
+/**
+ * A class that searches positions with any number of players. Positions are scored with a
+ * vector holding a utility for every player; the utilities of a vector are never negative and
+ * add up to at most MAX_SUM. A win gives the winner all of MAX_SUM, a tie splits it evenly, and
+ * other positions are split in proportion to each player's window potential.
+ * <p>
+ * Two search models are offered:
+ * <ul>
+ *     <li>MAX_N: every player picks the move that is best for their own utility. Since the
+ *     utilities have a bounded sum, a child whose utility for the player to move is already at
+ *     least MAX_SUM minus what the parent's player has been offered elsewhere can not be chosen
+ *     by the parent, and its siblings are pruned (shallow pruning).</li>
+ *     <li>PARANOID: the other players are assumed to play together against the root player,
+ *     which turns the game into a two sided search on the root player's utility, with alpha-beta
+ *     pruning.</li>
+ * </ul>
+ * Both are run with iterative deepening, and can be given a time limit: the search then stops
+ * when time runs out and answers with the deepest search it finished.
+ *
+ * @version 3.0
+ *
+ * @invariant nodes >= 0 AND [ 0 <= every utility AND the utilities of a vector add up to at most MAX_SUM ]
+ */
+public class MultiPlayerSearch {
+
+    public static final int MAX_N = 0;
+    public static final int PARANOID = 1;
+
+    public static final long MAX_SUM = 1L << 20;
+
+    //how often the search checks the clock
+    private static final int TIME_CHECK_NODES = 1024;
+
+    private static final RuntimeException TIMEOUT = new RuntimeException("out of time", null, false, false) {
+    };
+
+    private final int mode;
+    private MoveOrderer orderer;
+    private int[][] moveBuffers;
+    private long[][] values;
+
+    private long deadline;
+    private long nodes;
+    private int bestMove = -1;
+    private long[] bestValues;
+    private int depthReached;
+
+    /**
+     * <p>
+     * This creates a search.
+     * </p>
+     *
+     * @param mode
+     *      MAX_N or PARANOID
+     */
+    public MultiPlayerSearch(int mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * <p>
+     * This searches the position with iterative deepening.
+     * </p>
+     *
+     * @param board
+     *      The position to search, restored when the search returns
+     * @param maxDepth
+     *      The deepest search to run
+     * @param timeLimitMillis
+     *      How long the search may take, or 0 for no limit
+     * @return the best column for the player to move, or -1 if there are no legal moves
+     *
+     * @pre maxDepth >= 1 AND timeLimitMillis >= 0
+     * @post [ getBestMove, getValues, getNodes and getDepthReached describe the deepest search
+     *       that finished ] AND [ at least depth 1 is always finished ]
+     */
+    public int search(SearchBoard board, int maxDepth, long timeLimitMillis) {
+        SearchEvent event = Metrics.EVENTS ? new SearchEvent() : null;
+        if(event != null) {
+            event.begin();
+        }
+
+        int numPlayers = board.getNumPlayers();
+        int numCells = board.getNumRows() * board.getNumColumns();
+        int limit = Math.min(maxDepth, numCells - board.getNumMoves());
+        orderer = new MoveOrderer(board.getNumRows(), board.getNumColumns(), numPlayers, true);
+        moveBuffers = new int[limit + 1][board.getNumColumns()];
+        values = new long[limit + 2][numPlayers];
+        bestValues = new long[numPlayers];
+        nodes = 0;
+        bestMove = -1;
+        depthReached = 0;
+        deadline = Long.MAX_VALUE;
+
+        long start = System.nanoTime();
+        int startMoves = board.getNumMoves();
+        for(int depth = 1; depth <= limit; depth++) {
+            //depth 1 always finishes so there is a move to play
+            if(depth > 1 && timeLimitMillis > 0) {
+                deadline = start + timeLimitMillis * 1_000_000;
+            }
+
+            int move;
+            try {
+                move = mode == MAX_N ? maxN(board, depth, 0, Long.MAX_VALUE)
+                        : paranoid(board, depth, 0, board.getCurrentPlayer(), -1, MAX_SUM + 1);
+            }
+            catch(RuntimeException e) {
+                if(e != TIMEOUT) {
+                    throw e;
+                }
+                while(board.getNumMoves() > startMoves) {
+                    board.undo();
+                }
+                break;
+            }
+
+            bestMove = move;
+            System.arraycopy(values[0], 0, bestValues, 0, numPlayers);
+            depthReached = depth;
+
+            //a won position will not change with a deeper search
+            if(max(bestValues) == MAX_SUM) {
+                break;
+            }
+        }
+
+        if(event != null && event.shouldCommit()) {
+            event.engine = mode == MAX_N ? "max-n" : "paranoid";
+            event.depth = depthReached;
+            event.nodes = nodes;
+            event.bestMove = bestMove;
+            event.commit();
+        }
+        return bestMove;
+    }
+
+    //writes the value of the position to values[ply] and returns the best column
+    private int maxN(SearchBoard board, int depth, int ply, long bound) {
+        long[] result = values[ply];
+        if(leaf(board, depth, result)) {
+            return -1;
+        }
+
+        int mover = board.getCurrentPlayer();
+        int[] moves = moveBuffers[ply];
+        int n = orderer.order(board, ply, -1, moves);
+        int bestCol = -1;
+        result[mover] = -1;
+
+        for(int i = 0; i < n; i++) {
+            int c = moves[i];
+            long[] child = values[ply + 1];
+            if(board.play(c)) {
+                win(child, mover);
+            }
+            else {
+                maxN(board, depth - 1, ply + 1, MAX_SUM - result[mover]);
+            }
+            board.undo();
+
+            if(child[mover] > result[mover]) {
+                System.arraycopy(child, 0, result, 0, result.length);
+                bestCol = c;
+            }
+            //the parent's player gets at most MAX_SUM - result[mover] here, no more than it already has
+            if(result[mover] >= bound) {
+                orderer.recordCutoff(mover, c, ply, depth);
+                break;
+            }
+        }
+
+        return bestCol;
+    }
+
+    //writes the value of the position to values[ply] and returns the best column
+    private int paranoid(SearchBoard board, int depth, int ply, int root, long alpha, long beta) {
+        long[] result = values[ply];
+        if(leaf(board, depth, result)) {
+            return -1;
+        }
+
+        int mover = board.getCurrentPlayer();
+        boolean ours = mover == root;
+        int[] moves = moveBuffers[ply];
+        int n = orderer.order(board, ply, -1, moves);
+        int bestCol = -1;
+        long best = ours ? -1 : MAX_SUM + 1;
+
+        for(int i = 0; i < n; i++) {
+            int c = moves[i];
+            long[] child = values[ply + 1];
+            if(board.play(c)) {
+                win(child, mover);
+            }
+            else {
+                paranoid(board, depth - 1, ply + 1, root, alpha, beta);
+            }
+            board.undo();
+
+            long value = child[root];
+            if(ours ? value > best : value < best) {
+                best = value;
+                bestCol = c;
+                System.arraycopy(child, 0, result, 0, result.length);
+            }
+            if(ours) {
+                alpha = Math.max(alpha, best);
+            }
+            else {
+                beta = Math.min(beta, best);
+            }
+            if(alpha >= beta) {
+                orderer.recordCutoff(mover, c, ply, depth);
+                break;
+            }
+        }
+
+        return bestCol;
+    }
+
+    //scores ties and the search horizon, returns false if the position has to be searched
+    private boolean leaf(SearchBoard board, int depth, long[] result) {
+        if(++nodes % TIME_CHECK_NODES == 0 && System.nanoTime() > deadline) {
+            throw TIMEOUT;
+        }
+
+        int numPlayers = result.length;
+        if(board.isFull()) {
+            Arrays.fill(result, MAX_SUM / numPlayers);
+            return true;
+        }
+        if(depth > 0) {
+            return false;
+        }
+
+        long total = 0;
+        for(int p = 0; p < numPlayers; p++) {
+            result[p] = board.getEvaluator().getPotential(board.getPlayerChar(p));
+            total += result[p];
+        }
+        for(int p = 0; p < numPlayers; p++) {
+            result[p] = total == 0 ? MAX_SUM / numPlayers : (long) ((double) result[p] / total * MAX_SUM);
+        }
+        return true;
+    }
+
+    private static void win(long[] result, int winner) {
+        Arrays.fill(result, 0);
+        result[winner] = MAX_SUM;
+    }
+
+    private static long max(long[] vector) {
+        long best = 0;
+        for(long v : vector) {
+            best = Math.max(best, v);
+        }
+        return best;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * <p>
+     * This gets the utility vector of the best move of the last search.
+     * </p>
+     *
+     * @return a copy of the utility of every player, in turn order
+     */
+    public long[] getValues() {
+        return bestValues.clone();
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public int getDepthReached() {
+        return depthReached;
+    }
+}
@@ -0,0 +1,29 @@
+package cpsc2150.extendedConnectX.engine;
+
+/**
+ * A strategy that plays the best move found by {@link MultiPlayerSearch}, for any number of
+ * players.
+ *
+ * @version 3.0
+ */
+public class MultiPlayerStrategy implements Strategy {
+
+    private final MultiPlayerSearch search;
+    private final int depth;
+    private final long timeLimitMillis;
+
+    public MultiPlayerStrategy(int mode, int depth, long timeLimitMillis) {
+        search = new MultiPlayerSearch(mode);
+        this.depth = depth;
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    @Override
+    public int chooseMove(SearchBoard board) {
+        return search.search(board, depth, timeLimitMillis);
+    }
+
+    public MultiPlayerSearch getSearch() {
+        return search;
+    }
+}
@@ -0,0 +1,186 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.models.BoardPosition;
+import cpsc2150.extendedConnectX.models.IGameBoard;
+
+/**
+ * A class that keeps the tuple indices of an {@link NTupleNetwork} in step with a board, for
+ * every player's view of it. Placing or removing a token only updates the tuple instances
+ * through that cell, and the sum of their weights for each player along with them, so getting
+ * a value costs one tanh.
+ * <p>
+ * The sums are only kept right while the weights do not change. Training, which changes them
+ * as it goes, should use {@link #computeValue}.
+ *
+ * @version 3.0
+ *
+ * @invariant
+ * indices[p * numInstances + i] = [index of tuple instance i as seen by player p]
+ * sums[p] = [sum over i of the weight of instance i at its index for player p]
+ */
+public class NTupleEvaluator {
+
+    private final NTupleNetwork network;
+    private final char[] players;
+    private final int numCol;
+    private final int numInstances;
+    private final int[] indices;
+    private final double[] sums;
+
+    /**
+     * <p>
+     * This creates an evaluator for the current state of a board.
+     * </p>
+     *
+     * @param network
+     *      The network to evaluate with
+     * @param board
+     *      The board to mirror
+     * @param players
+     *      The player tokens in turn order
+     *
+     * @pre [ board has the network's size ] and [ every token on board is in players ]
+     * @post [ the evaluator holds the same tokens as board ]
+     */
+    public NTupleEvaluator(NTupleNetwork network, IGameBoard board, char[] players) {
+        this.network = network;
+        this.players = players.clone();
+        numCol = network.getNumColumns();
+        numInstances = network.getNumInstances();
+        indices = new int[players.length * numInstances];
+        sums = new double[players.length];
+
+        for(int c = 0; c < numCol; c++) {
+            for(int r = 0; r < board.getNumRows(); r++) {
+                char p = board.whatsAtPos(new BoardPosition(r, c));
+                if(p == ' ') {
+                    break;
+                }
+                place(r, c, playerIndex(p));
+            }
+        }
+
+        //the empty board has weights too, so the sums are only right once added up in full
+        for(int p = 0; p < players.length; p++) {
+            sums[p] = sum(p);
+        }
+    }
+
+    /**
+     * <p>
+     * This records a token of a player in a cell.
+     * </p>
+     *
+     * @param row
+     *      The row of the cell
+     * @param col
+     *      The column of the cell
+     * @param player
+     *      The index in players of the token's player
+     *
+     * @pre [ the cell is empty in the evaluator ]
+     * @post [ the instances through the cell and the sums are updated for every player ]
+     */
+    public void place(int row, int col, int player) {
+        change(row * numCol + col, player, 1);
+    }
+
+    /**
+     * <p>
+     * This removes the token of a player from a cell.
+     * </p>
+     *
+     * @param row
+     *      The row of the cell
+     * @param col
+     *      The column of the cell
+     * @param player
+     *      The index in players of the token's player
+     *
+     * @pre [ the cell holds player's token in the evaluator ]
+     * @post [ the instances through the cell and the sums are updated for every player ]
+     */
+    public void remove(int row, int col, int player) {
+        change(row * numCol + col, player, -1);
+    }
+
+    private void change(int cell, int player, int sign) {
+        for(int j = network.cellStart(cell); j < network.cellEnd(cell); j++) {
+            int instance = network.cellInstance(j);
+            int power = network.cellPower(j);
+
+            for(int p = 0; p < players.length; p++) {
+                int state = p == player ? NTupleNetwork.OWN : NTupleNetwork.OTHER;
+                int at = p * numInstances + instance;
+                sums[p] -= network.weight(instance, indices[at]);
+                indices[at] += sign * state * power;
+                sums[p] += network.weight(instance, indices[at]);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This gets the value of the position for a player from the sums kept with the indices.
+     * </p>
+     *
+     * @param player
+     *      The index in players of the player
+     * @return the value, between -1 for a loss and 1 for a win
+     *
+     * @pre [ the network's weights have not changed since this evaluator was created ]
+     */
+    public double getValue(int player) {
+        return Math.tanh(sums[player]);
+    }
+
+    /**
+     * <p>
+     * This gets the value of the position for a player by adding up the current weights.
+     * </p>
+     *
+     * @param player
+     *      The index in players of the player
+     * @return the value, between -1 for a loss and 1 for a win
+     */
+    public double computeValue(int player) {
+        return Math.tanh(sum(player));
+    }
+
+    private double sum(int player) {
+        double sum = 0;
+        for(int i = 0; i < numInstances; i++) {
+            sum += network.weight(i, indices[player * numInstances + i]);
+        }
+        return sum;
+    }
+
+    /**
+     * <p>
+     * This copies a player's tuple indices, to train on the position later.
+     * </p>
+     *
+     * @param player
+     *      The index in players of the player
+     * @param out
+     *      Where the indices are copied to
+     *
+     * @pre out.length = network.getNumInstances()
+     */
+    public void copyIndices(int player, int[] out) {
+        System.arraycopy(indices, player * numInstances, out, 0, numInstances);
+    }
+
+    public NTupleNetwork getNetwork() {
+        return network;
+    }
+
+    private int playerIndex(char p) {
+        for(int i = 0; i < players.length; i++) {
+            if(players[i] == p) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown player " + p);
+    }
+}
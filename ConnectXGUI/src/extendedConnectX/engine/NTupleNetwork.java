@@ -0,0 +1,391 @@
+package cpsc2150.extendedConnectX.engine;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * An n-tuple network for one board configuration. Each tuple is a fixed list of tupleLength
+ * cells, and has a table of 3^tupleLength weights, one for every way the cells can be filled:
+ * empty, a token of the player the position is valued for, or anyone else's token. The value of
+ * a position for a player is tanh of the sum of the weight each tuple's table holds for that
+ * player's view of the tuple's cells.
+ * <p>
+ * Tuples are random connected groups of cells. Boards are symmetric left to right, so every
+ * tuple is also applied to the board's mirror image with the same table, and a position and its
+ * mirror image have the same value.
+ * <p>
+ * The weights of every tuple are in one flat float array. Training threads update them without
+ * locking; a lost update only slows learning down. Networks are stored in a weights file: the
+ * magic number "CXNT", a version byte, rows, columns, number to win and tupleLength as bytes,
+ * the number of tuples as a short, every tuple cell as a short, and then the weights as floats,
+ * deflated, since most of them stay 0.
+ *
+ * @version 3.0
+ *
+ * @invariant weights.length = numTuples * 3^tupleLength
+ */
+public final class NTupleNetwork {
+
+    /**
+     * <p>
+     * States of a cell in a tuple index, from the point of view of one player.
+     * </p>
+     */
+    public static final int EMPTY = 0;
+    public static final int OWN = 1;
+    public static final int OTHER = 2;
+    public static final int STATES = 3;
+
+    private static final int MAGIC = 0x43584E54; //"CXNT"
+    private static final int VERSION = 1;
+
+    //row and column steps to the eight neighbours of a cell
+    private static final int[] ROW_STEP = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] COL_STEP = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    private static final Map<Path, NTupleNetwork> loaded = new ConcurrentHashMap<>();
+
+    private final int numRow;
+    private final int numCol;
+    private final int numToWin;
+    private final int numTuples;
+    private final int tupleLength;
+    private final int tableSize;
+    private final int[] tupleCells;
+    private final float[] weights;
+
+    //the tuple instances through each cell, tuple i and its mirror image being instances 2i and
+    //2i + 1, and what a token in that cell adds to the instance's index
+    private final int[] cellStart;
+    private final int[] cellInstance;
+    private final int[] cellPower;
+
+    private NTupleNetwork(int row, int col, int numToWin, int tupleLength, int[] tupleCells, float[] weights) {
+        numRow = row;
+        numCol = col;
+        this.numToWin = numToWin;
+        this.tupleLength = tupleLength;
+        this.tupleCells = tupleCells;
+        this.weights = weights;
+        numTuples = tupleCells.length / tupleLength;
+
+        tableSize = pow(tupleLength);
+
+        int numInstances = 2 * numTuples;
+        cellStart = new int[row * col + 1];
+        for(int i = 0; i < numInstances; i++) {
+            for(int j = 0; j < tupleLength; j++) {
+                cellStart[instanceCell(i, j) + 1]++;
+            }
+        }
+        for(int cell = 0; cell < row * col; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+
+        cellInstance = new int[numInstances * tupleLength];
+        cellPower = new int[numInstances * tupleLength];
+        int[] next = new int[row * col];
+        for(int i = 0; i < numInstances; i++) {
+            int power = 1;
+            for(int j = 0; j < tupleLength; j++) {
+                int cell = instanceCell(i, j);
+                int at = cellStart[cell] + next[cell]++;
+                cellInstance[at] = i;
+                cellPower[at] = power;
+                power *= STATES;
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This creates a network of random tuples with every weight 0.
+     * </p>
+     *
+     * @param row
+     *      The number of rows
+     * @param col
+     *      The number of columns
+     * @param numToWin
+     *      The number to win
+     * @param numTuples
+     *      How many tuples to sample
+     * @param tupleLength
+     *      How many cells each tuple has
+     * @param seed
+     *      The seed for sampling the tuples
+     * @return a new untrained network
+     *
+     * @pre 1 <= tupleLength <= min(row * col, 12) and numTuples >= 1
+     */
+    public static NTupleNetwork random(int row, int col, int numToWin, int numTuples, int tupleLength, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] cells = new int[numTuples * tupleLength];
+
+        //each tuple grows from a random cell by adding a random free neighbour of any of its cells
+        for(int t = 0; t < numTuples; t++) {
+            cells[t * tupleLength] = random.nextInt(row * col);
+            for(int length = 1; length < tupleLength; length++) {
+                cells[t * tupleLength + length] = neighbour(cells, t * tupleLength, length, row, col, random);
+            }
+        }
+
+        return new NTupleNetwork(row, col, numToWin, tupleLength, cells, new float[numTuples * pow(tupleLength)]);
+    }
+
+    //a random unused neighbour of any cell of the tuple so far, there is always one while the
+    //tuple is smaller than the board
+    private static int neighbour(int[] cells, int start, int length, int row, int col, SplittableRandom random) {
+        int found = -1;
+        int seen = 0;
+
+        for(int i = start; i < start + length; i++) {
+            int r = cells[i] / col;
+            int c = cells[i] % col;
+            for(int d = 0; d < ROW_STEP.length; d++) {
+                int nr = r + ROW_STEP[d];
+                int nc = c + COL_STEP[d];
+                if(nr < 0 || nr >= row || nc < 0 || nc >= col) {
+                    continue;
+                }
+
+                int cell = nr * col + nc;
+                boolean used = false;
+                for(int j = start; j < start + length && !used; j++) {
+                    used = cells[j] == cell;
+                }
+                if(!used && random.nextInt(++seen) == 0) {
+                    found = cell;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int pow(int tupleLength) {
+        int size = 1;
+        for(int j = 0; j < tupleLength; j++) {
+            size *= STATES;
+        }
+        return size;
+    }
+
+    /**
+     * <p>
+     * This gets the default weights file name for a board configuration.
+     * </p>
+     *
+     * @return "ntuple-[rows]x[cols]-[numToWin].cxnt"
+     */
+    public static String fileName(int row, int col, int numToWin) {
+        return "ntuple-" + row + "x" + col + "-" + numToWin + ".cxnt";
+    }
+
+    /**
+     * <p>
+     * This reads a weights file, or returns the network already read from it. Networks that are
+     * shared this way must not be trained any further.
+     * </p>
+     *
+     * @param file
+     *      The weights file
+     * @return the network in the file
+     * @throws UncheckedIOException if the file can not be read or is not a weights file
+     */
+    public static NTupleNetwork load(Path file) {
+        return loaded.computeIfAbsent(file.toAbsolutePath().normalize(), path -> {
+            try {
+                return read(path);
+            }
+            catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * <p>
+     * This reads a weights file.
+     * </p>
+     *
+     * @param file
+     *      The weights file
+     * @return a new network holding the file's tuples and weights
+     * @throws IOException if the file can not be read or is not a weights file
+     */
+    public static NTupleNetwork read(Path file) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if(in.readInt() != MAGIC) {
+                throw new IOException(file + " is not an n-tuple weights file");
+            }
+            int version = in.readUnsignedByte();
+            if(version != VERSION) {
+                throw new IOException("Unsupported n-tuple weights file version " + version);
+            }
+
+            int rows = in.readUnsignedByte();
+            int cols = in.readUnsignedByte();
+            int numToWin = in.readUnsignedByte();
+            int tupleLength = in.readUnsignedByte();
+            int[] cells = new int[in.readUnsignedShort() * tupleLength];
+            for(int i = 0; i < cells.length; i++) {
+                cells[i] = in.readUnsignedShort();
+                if(cells[i] >= rows * cols) {
+                    throw new IOException(file + " has a tuple cell outside the board");
+                }
+            }
+
+            float[] weights = new float[cells.length / tupleLength * pow(tupleLength)];
+            DataInputStream packed = new DataInputStream(new BufferedInputStream(new InflaterInputStream(in)));
+            for(int i = 0; i < weights.length; i++) {
+                weights[i] = packed.readFloat();
+            }
+            return new NTupleNetwork(rows, cols, numToWin, tupleLength, cells, weights);
+        }
+    }
+
+    /**
+     * <p>
+     * This writes the network to a weights file, replacing it if it exists.
+     * </p>
+     *
+     * @param file
+     *      The file to write
+     * @throws IOException if the file can not be written
+     */
+    public void write(Path file) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(numRow);
+            out.writeByte(numCol);
+            out.writeByte(numToWin);
+            out.writeByte(tupleLength);
+            out.writeShort(numTuples);
+            for(int cell : tupleCells) {
+                out.writeShort(cell);
+            }
+
+            DeflaterOutputStream deflated = new DeflaterOutputStream(out);
+            DataOutputStream packed = new DataOutputStream(new BufferedOutputStream(deflated));
+            for(float w : weights) {
+                packed.writeFloat(w);
+            }
+            packed.flush();
+            deflated.finish();
+        }
+    }
+
+    /**
+     * <p>
+     * This gets the value of a position from the tuple indices of one player's view of it.
+     * </p>
+     *
+     * @param indices
+     *      The index of every tuple instance, see {@link NTupleEvaluator}
+     * @return the value, between -1 for a loss and 1 for a win
+     */
+    public double value(int[] indices) {
+        return Math.tanh(sum(indices));
+    }
+
+    /**
+     * <p>
+     * This moves the value of a position toward a target by one temporal difference step.
+     * </p>
+     *
+     * @param indices
+     *      The index of every tuple instance of the position
+     * @param target
+     *      The value the position should have
+     * @param alpha
+     *      The learning rate
+     * @return the error, target minus the value before the step
+     */
+    public double update(int[] indices, double target, double alpha) {
+        double value = value(indices);
+        double error = target - value;
+        float step = (float) (alpha * error * (1 - value * value));
+
+        for(int i = 0; i < indices.length; i++) {
+            weights[instanceBase(i) + indices[i]] += step;
+        }
+        return error;
+    }
+
+    double sum(int[] indices) {
+        double sum = 0;
+        for(int i = 0; i < indices.length; i++) {
+            sum += weights[instanceBase(i) + indices[i]];
+        }
+        return sum;
+    }
+
+    float weight(int instance, int index) {
+        return weights[instanceBase(instance) + index];
+    }
+
+    private int instanceBase(int instance) {
+        return (instance >> 1) * tableSize;
+    }
+
+    /**
+     * <p>
+     * This gets cell j of a tuple instance. Odd instances are the mirror image of the tuple
+     * before them.
+     * </p>
+     */
+    int instanceCell(int instance, int j) {
+        int cell = tupleCells[(instance >> 1) * tupleLength + j];
+        if((instance & 1) == 0) {
+            return cell;
+        }
+        return cell - cell % numCol + numCol - 1 - cell % numCol;
+    }
+
+    int cellStart(int cell) {
+        return cellStart[cell];
+    }
+
+    int cellEnd(int cell) {
+        return cellStart[cell + 1];
+    }
+
+    int cellInstance(int i) {
+        return cellInstance[i];
+    }
+
+    int cellPower(int i) {
+        return cellPower[i];
+    }
+
+    public int getNumInstances() {
+        return 2 * numTuples;
+    }
+
+    public int getNumTuples() {
+        return numTuples;
+    }
+
+    public int getTupleLength() {
+        return tupleLength;
+    }
+
+    public int getNumRows() {
+        return numRow;
+    }
+
+    public int getNumColumns() {
+        return numCol;
+    }
+
+    public int getNumToWin() {
+        return numToWin;
+    }
+}
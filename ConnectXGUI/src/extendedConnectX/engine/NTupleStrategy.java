@@ -0,0 +1,31 @@
+package cpsc2150.extendedConnectX.engine;
+
+/**
+ * A strategy that scores positions with a trained {@link NTupleNetwork}: at depth 1 it plays
+ * like {@link GreedyStrategy}, and deeper it plays like {@link SearchStrategy}. The network is
+ * only set on the board while this strategy chooses its move, so the other seats keep their
+ * own evaluation.
+ *
+ * @version 3.0
+ */
+public class NTupleStrategy implements Strategy {
+
+    private final NTupleNetwork network;
+    private final Strategy inner;
+
+    public NTupleStrategy(NTupleNetwork network, int depth, long seed) {
+        this.network = network;
+        inner = depth <= 1 ? new GreedyStrategy(seed) : new SearchStrategy(depth, true);
+    }
+
+    @Override
+    public int chooseMove(SearchBoard board) {
+        board.setNetwork(network);
+        try {
+            return inner.chooseMove(board);
+        }
+        finally {
+            board.setNetwork(null);
+        }
+    }
+}
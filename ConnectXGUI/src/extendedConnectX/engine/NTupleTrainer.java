@@ -0,0 +1,233 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class trains an {@link NTupleNetwork} by temporal difference learning, TD(0), on games
+ * the network plays against itself, and saves it to a weights file.
+ * <p>
+ * Every player moves to the position the network values highest for them, or at random with
+ * probability epsilon. Each player's position after their move is then moved toward the value
+ * of their position after their next move, and their last position toward the result of the
+ * game: 1 for a win, -1 for a loss and 0 for a tie.
+ * <p>
+ * Worker threads play games at the same time and update the shared weights without locking,
+ * so training on more than one thread is not reproducible. With two players, the trained
+ * network then plays a short {@link Tournament} against the greedy and random strategies.
+ *
+ * @version 3.0
+ */
+public class NTupleTrainer {
+
+    private static final int REPORTS = 10;
+    private static final int TOURNAMENT_SEEDS = 50;
+
+    private final NTupleNetwork network;
+    private final char[] players;
+    private final double alpha;
+    private final double epsilon;
+    private final long seed;
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLong moves = new AtomicLong();
+
+    /**
+     * <p>
+     * This creates a trainer.
+     * </p>
+     *
+     * @param network
+     *      The network to train
+     * @param numPlayers
+     *      The number of players in the self-play games
+     * @param alpha
+     *      The learning rate
+     * @param epsilon
+     *      The chance of a random move
+     * @param seed
+     *      The seed for the random moves
+     *
+     * @pre MIN_PLAYERS <= numPlayers <= MAX_PLAYERS and alpha > 0 and 0 <= epsilon <= 1
+     */
+    public NTupleTrainer(NTupleNetwork network, int numPlayers, double alpha, double epsilon, long seed) {
+        this.network = network;
+        players = Arrays.copyOf(ConnectXGame.PLAYER_CHARS, numPlayers);
+        this.alpha = alpha;
+        this.epsilon = epsilon;
+        this.seed = seed;
+    }
+
+    /**
+     * <p>
+     * This plays training games until games have been played in total.
+     * </p>
+     *
+     * @param games
+     *      The number of games to have played when this returns
+     * @param threads
+     *      How many games to play at once
+     * @throws InterruptedException if interrupted while waiting for the games
+     */
+    public void train(long games, int threads) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for(int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                for(long game = next.getAndIncrement(); game < games; game = next.getAndIncrement()) {
+                    play(new SplittableRandom(seed ^ Tournament.mix(game)));
+                }
+            }, "ntuple-trainer-" + i);
+            workers[i].start();
+        }
+        for(Thread worker : workers) {
+            worker.join();
+        }
+        //the workers each take one number past the end
+        next.set(games);
+    }
+
+    private void play(SplittableRandom random) {
+        SearchBoard board = new SearchBoard(ConnectXGame.createBoard(network.getNumRows(), network.getNumColumns(),
+                network.getNumToWin()), players, 0);
+        NTupleEvaluator evaluator = new NTupleEvaluator(network, board.getBoard(), players);
+        int[][] previous = new int[players.length][network.getNumInstances()];
+        boolean[] moved = new boolean[players.length];
+
+        while(true) {
+            int mover = board.getCurrentPlayer();
+            int c = chooseMove(board, evaluator, mover, random);
+            int row = board.getHeight(c);
+            boolean won = board.play(c);
+            evaluator.place(row, c, mover);
+            moves.incrementAndGet();
+
+            if(won || board.isFull()) {
+                for(int p = 0; p < players.length; p++) {
+                    if(moved[p]) {
+                        network.update(previous[p], won ? (p == mover ? 1 : -1) : 0, alpha);
+                    }
+                }
+                return;
+            }
+
+            if(moved[mover]) {
+                network.update(previous[mover], evaluator.computeValue(mover), alpha);
+            }
+            evaluator.copyIndices(mover, previous[mover]);
+            moved[mover] = true;
+        }
+    }
+
+    //the move with the best value for the mover, a win if there is one, or sometimes a random move
+    private int chooseMove(SearchBoard board, NTupleEvaluator evaluator, int mover, SplittableRandom random) {
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int ties = 0;
+        boolean explore = random.nextDouble() < epsilon;
+
+        for(int c = 0; c < board.getNumColumns(); c++) {
+            if(!board.canPlay(c)) {
+                continue;
+            }
+
+            double value;
+            if(explore) {
+                value = 0;
+            }
+            else {
+                int row = board.getHeight(c);
+                boolean won = board.play(c);
+                evaluator.place(row, c, mover);
+                value = won ? 2 : evaluator.computeValue(mover);
+                evaluator.remove(row, c, mover);
+                board.undo();
+            }
+
+            if(value > bestValue) {
+                best = c;
+                bestValue = value;
+                ties = 1;
+            }
+            else if(value == bestValue && random.nextInt(++ties) == 0) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    public long getGamesPlayed() {
+        return next.get();
+    }
+
+    public long getMovesPlayed() {
+        return moves.get();
+    }
+
+    /**
+     * <p>
+     * This is the training entry point.
+     * </p>
+     *
+     * @param args
+     *      rows cols numToWin [players=2] [games=100000] [file=ntuple-[rows]x[cols]-[numToWin].cxnt]
+     *      [seed=2150] [tuples=64] [tupleLength=6] [alpha=0.01] [epsilon=0.1]
+     * @throws IOException if the weights can not be written
+     * @throws InterruptedException if interrupted while training
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length < 3) {
+            System.err.println("usage: NTupleTrainer rows cols numToWin [players=2] [games=100000] [file] [seed=2150] "
+                    + "[tuples=64] [tupleLength=6] [alpha=0.01] [epsilon=0.1]");
+            System.exit(2);
+        }
+
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int numToWin = Integer.parseInt(args[2]);
+        int numPlayers = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        long games = args.length > 4 ? Long.parseLong(args[4]) : 100000;
+        Path file = Paths.get(args.length > 5 ? args[5] : NTupleNetwork.fileName(rows, cols, numToWin));
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 2150;
+        int tuples = args.length > 7 ? Integer.parseInt(args[7]) : 64;
+        int tupleLength = args.length > 8 ? Integer.parseInt(args[8]) : 6;
+        double alpha = args.length > 9 ? Double.parseDouble(args[9]) : 0.01;
+        double epsilon = args.length > 10 ? Double.parseDouble(args[10]) : 0.1;
+
+        String error = ConnectXGame.validate(rows, cols, numPlayers, numToWin);
+        if(!error.equals("")) {
+            System.err.println(error);
+            System.exit(2);
+        }
+
+        NTupleNetwork network = NTupleNetwork.random(rows, cols, numToWin, tuples, tupleLength, seed);
+        NTupleTrainer trainer = new NTupleTrainer(network, numPlayers, alpha, epsilon, seed);
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%dx%d, %d to win, %d players: %d tuples of %d cells, %d weights, %d threads%n", rows, cols,
+                numToWin, numPlayers, tuples, tupleLength, tuples * (int) Math.pow(NTupleNetwork.STATES, tupleLength),
+                threads);
+
+        long start = System.nanoTime();
+        for(int report = 1; report <= REPORTS; report++) {
+            trainer.train(games * report / REPORTS, threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%10d games %12d moves %8.1f s %10.0f games/s%n", trainer.getGamesPlayed(),
+                    trainer.getMovesPlayed(), seconds, trainer.getGamesPlayed() / seconds);
+        }
+
+        network.write(file);
+        System.out.println("weights written to " + file);
+
+        if(numPlayers == 2) {
+            String[] strategies = {"ntuple:" + file, "greedy", "random"};
+            Tournament tournament = new Tournament(strategies, new int[][]{{rows, cols, numToWin}},
+                    TOURNAMENT_SEEDS, seed, 2);
+            tournament.run(threads);
+            tournament.printResults();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.models.*;
+
+/**
+ * This class runs the search on a fixed set of positions with and without move ordering and
+ * prints the number of nodes searched, so the effect of move ordering can be checked.
+ *
+ * @version 3.0
+ */
+public class OrderingBenchmark {
+
+    private static final char[] PLAYERS = {'X', 'O'};
+
+    //rows, cols, numToWin, depth, moves played so far (columns, one digit or letter each)
+    private static final Object[][] POSITIONS = {
+            {6, 7, 4, 9, ""},
+            {6, 7, 4, 10, "32"},
+            {6, 7, 4, 10, "3024"},
+            {8, 8, 4, 8, "3407"},
+            {8, 8, 5, 8, "34435"},
+            {10, 10, 5, 6, "45546"},
+    };
+
+    /**
+     * <p>
+     * This is the benchmark entry point.
+     * </p>
+     *
+     * @param args
+     *      Command-line arguments (there shouldn't be any).
+     */
+    public static void main(String[] args) {
+        System.out.printf("%-22s %5s %12s %12s %7s%n", "position", "depth", "unordered", "ordered", "ratio");
+
+        long totalPlain = 0;
+        long totalOrdered = 0;
+        for(Object[] position : POSITIONS) {
+            int rows = (Integer) position[0];
+            int cols = (Integer) position[1];
+            int numToWin = (Integer) position[2];
+            int depth = (Integer) position[3];
+            String moves = (String) position[4];
+
+            long plain = run(rows, cols, numToWin, moves, depth, false);
+            long ordered = run(rows, cols, numToWin, moves, depth, true);
+            totalPlain += plain;
+            totalOrdered += ordered;
+
+            String name = rows + "x" + cols + " k" + numToWin + " [" + moves + "]";
+            System.out.printf("%-22s %5d %12d %12d %6.1fx%n", name, depth, plain, ordered, (double) plain / ordered);
+        }
+
+        System.out.printf("%-22s %5s %12d %12d %6.1fx%n", "total", "", totalPlain, totalOrdered,
+                (double) totalPlain / totalOrdered);
+    }
+
+    private static long run(int rows, int cols, int numToWin, String moves, int depth, boolean ordering) {
+        IGameBoard board = new GameBoard(rows, cols, numToWin);
+        for(int i = 0; i < moves.length(); i++) {
+            board.placeToken(PLAYERS[i % PLAYERS.length], Character.digit(moves.charAt(i), 36));
+        }
+
+        AlphaBetaSearch search = new AlphaBetaSearch(ordering);
+        search.search(new SearchBoard(board, PLAYERS, moves.length() % PLAYERS.length), depth);
+        return search.getNodes();
+    }
+}
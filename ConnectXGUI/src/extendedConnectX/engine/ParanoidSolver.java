@@ -0,0 +1,156 @@
+package cpsc2150.extendedConnectX.engine;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A class that decides positions exactly within a depth limit, for any number of players. The
+ * search is paranoid: one root player tries to win and every other player plays against it.
+ * Results are one of the outcomes LOSS, UNKNOWN, DRAW or WIN from {@link ColumnAnalyzer}, and
+ * the search is alpha-beta over those four values. Moves that win at once, or else block a
+ * player on the other side from winning at once, are the only ones searched when there are any.
+ *
+ * A solver is used by one thread at a time.
+ *
+ * @version 3.0
+ *
+ * @invariant nodes >= 0
+ */
+public class ParanoidSolver {
+
+    //how often the search checks whether it has been cancelled
+    private static final int CANCEL_CHECK_NODES = 1024;
+
+    private final MoveOrderer orderer;
+    private final int[][] moves;
+    private final AtomicBoolean cancelled;
+    private long nodes;
+
+    /**
+     * <p>
+     * This creates a solver for positions of a board.
+     * </p>
+     *
+     * @param board
+     *      A position of the size that will be solved
+     * @param maxDepth
+     *      The deepest search that will be asked for
+     * @param cancelled
+     *      A flag that makes the search throw CancellationException when set, or null
+     */
+    public ParanoidSolver(SearchBoard board, int maxDepth, AtomicBoolean cancelled) {
+        orderer = new MoveOrderer(board.getNumRows(), board.getNumColumns(), board.getNumPlayers(), true);
+        moves = new int[maxDepth + 1][board.getNumColumns()];
+        this.cancelled = cancelled == null ? new AtomicBoolean() : cancelled;
+    }
+
+    /**
+     * <p>
+     * This decides the position for the root player.
+     * </p>
+     *
+     * @param board
+     *      The position, restored when this returns
+     * @param depth
+     *      How many plies to look ahead
+     * @param root
+     *      The index of the player trying to win
+     * @return LOSS, UNKNOWN, DRAW or WIN for root
+     * @throws CancellationException if the cancel flag is set or the thread is interrupted
+     *
+     * @pre 0 <= depth <= [maxDepth given to the constructor]
+     */
+    public int solve(SearchBoard board, int depth, int root) {
+        return solve(board, depth, root, ColumnAnalyzer.LOSS, ColumnAnalyzer.WIN);
+    }
+
+    /**
+     * <p>
+     * This finds every move of the player to move that forces a win within depth plies.
+     * </p>
+     *
+     * @param board
+     *      The position, restored when this returns
+     * @param depth
+     *      How many plies to look ahead, counting the first move
+     * @param out
+     *      Receives the winning columns
+     * @return the number of winning columns written to out
+     *
+     * @pre 1 <= depth <= [maxDepth given to the constructor] + 1
+     */
+    public int winningMoves(SearchBoard board, int depth, int[] out) {
+        int root = board.getCurrentPlayer();
+        int n = 0;
+
+        for(int c = 0; c < board.getNumColumns(); c++) {
+            if(!board.canPlay(c)) {
+                continue;
+            }
+            boolean wins = board.play(c) || solve(board, depth - 1, root) == ColumnAnalyzer.WIN;
+            board.undo();
+            if(wins) {
+                out[n++] = c;
+            }
+        }
+
+        return n;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    private int solve(SearchBoard board, int depth, int root, int alpha, int beta) {
+        if(++nodes % CANCEL_CHECK_NODES == 0 && (cancelled.get() || Thread.currentThread().isInterrupted())) {
+            throw new CancellationException();
+        }
+        if(board.isFull()) {
+            return ColumnAnalyzer.DRAW;
+        }
+        if(depth == 0) {
+            return ColumnAnalyzer.UNKNOWN;
+        }
+
+        boolean ours = board.getCurrentPlayer() == root;
+        int ply = depth - 1;
+        int n = orderer.order(board, ply, -1, moves[ply]);
+        int mover = board.getCurrentPlayer();
+        long forced = board.getForcedColumns();
+        //an opponent need not block another opponent, either of them winning is a loss for root
+        if(!ours && (mover + 1) % board.getNumPlayers() != root) {
+            forced = board.getWinningColumns(mover);
+        }
+        if(forced != 0) {
+            n = MoveOrderer.keep(forced, moves[ply], n);
+        }
+        int best = ours ? ColumnAnalyzer.LOSS : ColumnAnalyzer.WIN;
+
+        for(int i = 0; i < n; i++) {
+            int c = moves[ply][i];
+            int value;
+            if(board.play(c)) {
+                value = ours ? ColumnAnalyzer.WIN : ColumnAnalyzer.LOSS;
+            }
+            else {
+                value = solve(board, depth - 1, root, alpha, beta);
+            }
+            board.undo();
+
+            if(ours) {
+                best = Math.max(best, value);
+                alpha = Math.max(alpha, best);
+            }
+            else {
+                best = Math.min(best, value);
+                beta = Math.min(beta, best);
+            }
+            if(alpha >= beta) {
+                orderer.recordCutoff(board.getCurrentPlayer(), c, ply, depth);
+                break;
+            }
+        }
+
+        return best;
+    }
+}
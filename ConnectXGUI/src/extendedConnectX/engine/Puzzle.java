@@ -0,0 +1,104 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+
+/**
+ * An immutable forced-win puzzle: the moves that lead from an empty board to the puzzle position,
+ * and the only column that lets the player to move win within winIn of their own moves.
+ *
+ * @version 3.0
+ *
+ * @invariant [ every column in moves was playable when it was played and no move ended the game ]
+ *            0 <= solution < numCols AND winIn >= 1
+ */
+public final class Puzzle {
+
+    private final int numRows;
+    private final int numCols;
+    private final int numToWin;
+    private final int numPlayers;
+    private final int winIn;
+    private final int solution;
+    private final byte[] moves;
+
+    /**
+     * <p>
+     * This creates a puzzle.
+     * </p>
+     *
+     * @param numRows
+     *      Number of rows of the board
+     * @param numCols
+     *      Number of columns of the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @param numPlayers
+     *      Number of players for the game
+     * @param winIn
+     *      Number of moves the player to move needs to win, counting the solution
+     * @param solution
+     *      The only winning column
+     * @param moves
+     *      The columns played from an empty board, in order
+     *
+     * @pre [ the arguments describe a setup ConnectXGame.validate accepts ]
+     */
+    public Puzzle(int numRows, int numCols, int numToWin, int numPlayers, int winIn, int solution, byte[] moves) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.numToWin = numToWin;
+        this.numPlayers = numPlayers;
+        this.winIn = winIn;
+        this.solution = solution;
+        this.moves = moves.clone();
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getNumColumns() {
+        return numCols;
+    }
+
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    public int getWinIn() {
+        return winIn;
+    }
+
+    public int getSolution() {
+        return solution;
+    }
+
+    public int getNumMoves() {
+        return moves.length;
+    }
+
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+    /**
+     * <p>
+     * This gets the token of the player who has to find the win.
+     * </p>
+     *
+     * @return the token of the player to move in the puzzle position
+     */
+    public char getPlayerToMove() {
+        return ConnectXGame.PLAYER_CHARS[moves.length % numPlayers];
+    }
+
+    @Override
+    public String toString() {
+        return "Player " + getPlayerToMove() + " to move and win in " + winIn + " on " + numRows + "x" + numCols
+                + " (" + numToWin + " to win, " + numPlayers + " players)";
+    }
+}
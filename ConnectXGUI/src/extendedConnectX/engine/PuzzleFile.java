@@ -0,0 +1,94 @@
+package cpsc2150.extendedConnectX.engine;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class reads and writes puzzle files. A puzzle file starts with the magic number "CXPZ", a
+ * version byte and the number of puzzles. Each puzzle is then stored in a few bytes: rows, columns,
+ * number to win, players, moves to win and the solution column, one byte each, followed by the
+ * number of moves as a short and one byte per move. Boards are at most MAX_SIZE wide, so every
+ * column fits in a byte.
+ *
+ * @version 3.0
+ */
+public final class PuzzleFile {
+
+    private static final int MAGIC = 0x4358505A; //"CXPZ"
+    private static final int VERSION = 1;
+
+    private PuzzleFile() {
+    }
+
+    /**
+     * <p>
+     * This writes puzzles to a file, replacing it if it exists.
+     * </p>
+     *
+     * @param file
+     *      The file to write
+     * @param puzzles
+     *      The puzzles to store
+     * @throws IOException if the file can not be written
+     */
+    public static void write(Path file, List<Puzzle> puzzles) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(puzzles.size());
+
+            for(Puzzle p : puzzles) {
+                out.writeByte(p.getNumRows());
+                out.writeByte(p.getNumColumns());
+                out.writeByte(p.getNumToWin());
+                out.writeByte(p.getNumPlayers());
+                out.writeByte(p.getWinIn());
+                out.writeByte(p.getSolution());
+                out.writeShort(p.getNumMoves());
+                for(int i = 0; i < p.getNumMoves(); i++) {
+                    out.writeByte(p.getMove(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This reads every puzzle in a file.
+     * </p>
+     *
+     * @param file
+     *      The file to read
+     * @return the puzzles, in the order they were written
+     * @throws IOException if the file can not be read or is not a puzzle file
+     */
+    public static List<Puzzle> read(Path file) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if(in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a puzzle file");
+            }
+            int version = in.readUnsignedByte();
+            if(version != VERSION) {
+                throw new IOException("Unsupported puzzle file version " + version);
+            }
+
+            int count = in.readInt();
+            List<Puzzle> puzzles = new ArrayList<>(count);
+            for(int i = 0; i < count; i++) {
+                int rows = in.readUnsignedByte();
+                int cols = in.readUnsignedByte();
+                int numToWin = in.readUnsignedByte();
+                int players = in.readUnsignedByte();
+                int winIn = in.readUnsignedByte();
+                int solution = in.readUnsignedByte();
+                byte[] moves = new byte[in.readUnsignedShort()];
+                in.readFully(moves);
+                puzzles.add(new Puzzle(rows, cols, numToWin, players, winIn, solution, moves));
+            }
+            return puzzles;
+        }
+    }
+}
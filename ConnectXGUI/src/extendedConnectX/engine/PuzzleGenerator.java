@@ -0,0 +1,252 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class generates "player X to move and win in N" puzzles. Worker threads, one per core, play
+ * semi-random games and stop at every position along the way to check whether the player to move
+ * has exactly one column that forces a win in N of their own moves and no faster win. Positions are
+ * deduplicated by their canonical Zobrist key before they are solved, so transpositions reached by
+ * different games, and mirror images of positions already seen, are only solved once. The puzzles found are written to a {@link PuzzleFile} that
+ * {@link cpsc2150.extendedConnectX.ConnectXApp} can open.
+ * <p>
+ * With more than two players the other players are assumed to work together against the player
+ * to move, as in {@link ColumnAnalyzer}.
+ *
+ * @version 3.0
+ */
+public class PuzzleGenerator {
+
+    private final int numRows;
+    private final int numCols;
+    private final int numToWin;
+    private final int numPlayers;
+    private final int winIn;
+    private final long seed;
+
+    private final Set<Long> seen = ConcurrentHashMap.newKeySet();
+    private final List<Puzzle> found = new ArrayList<>();
+    private final AtomicBoolean done = new AtomicBoolean();
+    private final AtomicLong positions = new AtomicLong();
+    private final AtomicLong nodes = new AtomicLong();
+    private int wanted;
+
+    /**
+     * <p>
+     * This creates a generator for one setup of the game.
+     * </p>
+     *
+     * @param numRows
+     *      Number of rows of the board
+     * @param numCols
+     *      Number of columns of the board
+     * @param numToWin
+     *      Number of tokens in a row required to win
+     * @param numPlayers
+     *      Number of players for the game
+     * @param winIn
+     *      Number of moves the player to move needs to win
+     * @param seed
+     *      The seed for the random games
+     *
+     * @pre [ ConnectXGame.validate accepts the setup ] AND winIn >= 1
+     */
+    public PuzzleGenerator(int numRows, int numCols, int numToWin, int numPlayers, int winIn, long seed) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.numToWin = numToWin;
+        this.numPlayers = numPlayers;
+        this.winIn = winIn;
+        this.seed = seed;
+    }
+
+    /**
+     * <p>
+     * This generates puzzles until enough are found or time runs out.
+     * </p>
+     *
+     * @param count
+     *      How many puzzles to find
+     * @param threads
+     *      How many worker threads to use
+     * @param timeLimitMillis
+     *      How long to search before giving up on the rest
+     * @return the puzzles found, at most count
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public List<Puzzle> generate(int count, int threads, long timeLimitMillis) throws InterruptedException {
+        wanted = count;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for(int i = 0; i < threads; i++) {
+            long workerSeed = seed * 31 + i;
+            pool.execute(() -> work(new Random(workerSeed)));
+        }
+        pool.shutdown();
+        if(!pool.awaitTermination(timeLimitMillis, TimeUnit.MILLISECONDS)) {
+            done.set(true);
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        synchronized(found) {
+            return new ArrayList<>(found.subList(0, Math.min(count, found.size())));
+        }
+    }
+
+    public long getPositions() {
+        return positions.get();
+    }
+
+    public long getNodes() {
+        return nodes.get();
+    }
+
+    private void work(Random random) {
+        char[] players = Arrays.copyOf(ConnectXGame.PLAYER_CHARS, numPlayers);
+        int depth = (winIn - 1) * numPlayers + 1;
+        int[] winning = new int[numCols];
+        byte[] moves = new byte[numRows * numCols];
+        ParanoidSolver solver = null;
+
+        while(!done.get()) {
+            SearchBoard board = new SearchBoard(ConnectXGame.createBoard(numRows, numCols, numToWin), players, 0);
+            if(solver == null) {
+                solver = new ParanoidSolver(board, depth, done);
+            }
+
+            try {
+                while(!done.get() && !board.isFull()) {
+                    if(seen.add(board.getCanonicalKey())) {
+                        positions.incrementAndGet();
+                        long before = solver.getNodes();
+                        int solution = solve(board, solver, depth, winning);
+                        nodes.addAndGet(solver.getNodes() - before);
+                        if(solution >= 0) {
+                            add(new Puzzle(numRows, numCols, numToWin, numPlayers, winIn, solution,
+                                    Arrays.copyOf(moves, board.getNumMoves())));
+                        }
+                    }
+
+                    int c = randomMove(board, random);
+                    if(c < 0) {
+                        break;
+                    }
+                    moves[board.getNumMoves()] = (byte) c;
+                    board.play(c);
+                }
+            }
+            catch(CancellationException e) {
+                //enough puzzles were found or time ran out
+                return;
+            }
+        }
+    }
+
+    //the only column that wins in exactly winIn moves, or -1
+    private int solve(SearchBoard board, ParanoidSolver solver, int depth, int[] winning) {
+        if(winIn > 1 && solver.winningMoves(board, depth - numPlayers, winning) > 0) {
+            return -1;
+        }
+        return solver.winningMoves(board, depth, winning) == 1 ? winning[0] : -1;
+    }
+
+    //a random column that does not win on the spot, biased towards the center; -1 if there is none
+    private int randomMove(SearchBoard board, Random random) {
+        int center = numCols / 2;
+        int best = -1;
+
+        for(int tries = 0; tries < 2; tries++) {
+            int start = random.nextInt(numCols);
+            for(int i = 0; i < numCols; i++) {
+                int c = (start + i) % numCols;
+                if(!board.canPlay(c)) {
+                    continue;
+                }
+                boolean wins = board.play(c);
+                board.undo();
+                if(!wins) {
+                    if(best < 0 || Math.abs(c - center) < Math.abs(best - center)) {
+                        best = c;
+                    }
+                    break;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    private void add(Puzzle puzzle) {
+        synchronized(found) {
+            found.add(puzzle);
+            if(found.size() >= wanted) {
+                done.set(true);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This is the generator entry point.
+     * </p>
+     *
+     * @param args
+     *      rows cols numToWin players winIn count [file=puzzles.cxp] [seed=2150] [seconds=300]
+     * @throws IOException if the puzzle file can not be written
+     * @throws InterruptedException if interrupted while generating
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length < 6) {
+            System.err.println("usage: PuzzleGenerator rows cols numToWin players winIn count "
+                    + "[file=puzzles.cxp] [seed=2150] [seconds=300]");
+            System.exit(2);
+        }
+
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int numToWin = Integer.parseInt(args[2]);
+        int players = Integer.parseInt(args[3]);
+        int winIn = Integer.parseInt(args[4]);
+        int count = Integer.parseInt(args[5]);
+        Path file = Paths.get(args.length > 6 ? args[6] : "puzzles.cxp");
+        long seed = args.length > 7 ? Long.parseLong(args[7]) : 2150;
+        long seconds = args.length > 8 ? Long.parseLong(args[8]) : 300;
+
+        String error = ConnectXGame.validate(rows, cols, players, numToWin);
+        if(!error.equals("")) {
+            System.err.println(error);
+            System.exit(2);
+        }
+        if(winIn < 1) {
+            System.err.println("winIn must be at least 1");
+            System.exit(2);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        PuzzleGenerator generator = new PuzzleGenerator(rows, cols, numToWin, players, winIn, seed);
+        long start = System.nanoTime();
+        List<Puzzle> puzzles = generator.generate(count, threads, seconds * 1000);
+        double minutes = (System.nanoTime() - start) / 60e9;
+
+        PuzzleFile.write(file, puzzles);
+        System.out.printf("%d puzzles (win in %d) written to %s%n", puzzles.size(), winIn, file);
+        System.out.printf("%d threads, %.1f s, %d positions solved, %d nodes%n",
+                threads, minutes * 60, generator.getPositions(), generator.getNodes());
+        System.out.printf("%.1f puzzles/minute%n", puzzles.size() / minutes);
+    }
+}
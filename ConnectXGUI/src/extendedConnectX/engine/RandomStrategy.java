@@ -0,0 +1,35 @@
+package cpsc2150.extendedConnectX.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * A strategy that plays a uniformly random legal column.
+ *
+ * @version 3.0
+ */
+public class RandomStrategy implements Strategy {
+
+    private final SplittableRandom random;
+
+    public RandomStrategy(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int chooseMove(SearchBoard board) {
+        int legal = 0;
+        for(int c = 0; c < board.getNumColumns(); c++) {
+            if(board.canPlay(c)) {
+                legal++;
+            }
+        }
+
+        int pick = random.nextInt(legal);
+        for(int c = 0; c < board.getNumColumns(); c++) {
+            if(board.canPlay(c) && pick-- == 0) {
+                return c;
+            }
+        }
+        return -1;
+    }
+}
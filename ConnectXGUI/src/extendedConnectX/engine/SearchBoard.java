@@ -0,0 +1,341 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.models.*;
+
+import java.util.SplittableRandom;
+
+/**
+ * A class that wraps an {@link IGameBoard} for searching. It keeps the column heights, the
+ * player rotation, a {@link WindowEvaluator}, a {@link ThreatMap} and a Zobrist hash key in step
+ * with the board, so the search can play and undo moves without rescanning anything.
+ *
+ * Boards are symmetric left to right, so a position and its mirror image have the same value.
+ * The key of the mirror image is kept as well, and the smaller of the two keys is the canonical
+ * key that tables should store positions under, with moves translated by canonicalColumn.
+ *
+ * Players move in the order of the players array, the same rotation ConnectXController uses.
+ *
+ * The threat map is left out on boards wider than ThreatMap.MAX_COLUMNS; wins are then found
+ * from the line table and no columns are reported as forced.
+ *
+ * A trained {@link NTupleNetwork} can be set to score positions in place of the window
+ * evaluator; its tuple indices are then kept in step with the board as well.
+ *
+ * @version 3.0
+ *
+ * @invariant
+ * 0 <= current < players.length
+ * 0 <= heights[c] <= [number of rows]
+ * 0 <= numMoves <= [number of rows] * [number of columns]
+ * key = [xor of the Zobrist keys of every token on the board and of the side to move]
+ * mirrorKey = [key of the board reflected left to right]
+ *
+ */
+public class SearchBoard {
+
+    private static final long ZOBRIST_SEED = 0x2150C0FFEEL;
+
+    //network values are between -1 and 1, far from the search's win scores once scaled
+    private static final double NETWORK_SCALE = 1L << 30;
+
+    private final IGameBoard board;
+    private final WindowEvaluator evaluator;
+    private final ThreatMap threats;
+    private final LineTable table;
+    private final char[] players;
+    private final int numRow;
+    private final int numCol;
+    private final int[] heights;
+    private final int[] moves;
+    private final long[] tokenKeys;
+    private final long[] sideKeys;
+    private int numMoves;
+    private int tokens;
+    private int current;
+    private long key;
+    private long mirrorKey;
+    private NTupleEvaluator network;
+
+    /**
+     * <p>
+     * This creates a search board for the current state of a board.
+     * </p>
+     *
+     * @param board
+     *      The board to search, it is modified during the search and restored afterwards
+     * @param players
+     *      The player tokens in turn order
+     * @param current
+     *      The index in players of the player to move
+     *
+     * @pre [ every token on board is in players ] and 0 <= current < players.length
+     * @post [ the search board mirrors board with players[current] to move ]
+     */
+    public SearchBoard(IGameBoard board, char[] players, int current) {
+        this.board = board;
+        this.players = players.clone();
+        this.current = current;
+        numRow = board.getNumRows();
+        numCol = board.getNumColumns();
+        table = LineTable.forBoard(board);
+        evaluator = new WindowEvaluator(board, players);
+        threats = numCol <= ThreatMap.MAX_COLUMNS ? new ThreatMap(board, players) : null;
+        heights = new int[numCol];
+        moves = new int[numRow * numCol];
+
+        //fixed seed so keys are the same for every search of this configuration, and differ
+        //between configurations, including ones that only differ in the number to win
+        long configuration = (numRow * 131L + numCol) * 131L + board.getNumToWin();
+        SplittableRandom random = new SplittableRandom(ZOBRIST_SEED ^ configuration);
+        tokenKeys = new long[numRow * numCol * players.length];
+        for(int i = 0; i < tokenKeys.length; i++) {
+            tokenKeys[i] = random.nextLong();
+        }
+        sideKeys = new long[players.length];
+        for(int i = 0; i < sideKeys.length; i++) {
+            sideKeys[i] = random.nextLong();
+        }
+
+        key = sideKeys[current];
+        mirrorKey = key;
+        for(int c = 0; c < numCol; c++) {
+            while(heights[c] < numRow && board.whatsAtPos(new BoardPosition(heights[c], c)) != ' ') {
+                char p = board.whatsAtPos(new BoardPosition(heights[c], c));
+                key ^= tokenKeys[table.cell(heights[c], c) * players.length + playerIndex(p)];
+                mirrorKey ^= tokenKeys[table.cell(heights[c], numCol - 1 - c) * players.length + playerIndex(p)];
+                heights[c]++;
+                tokens++;
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * This places the current player's token in column c and passes the turn on.
+     * </p>
+     *
+     * @param c
+     *      The column to play in
+     * @return true if the move completed numToWin in a row for the player who made it
+     *
+     * @pre canPlay(c)
+     * @post [ the token is on the board, the evaluator and the threat map ] and [ the next player
+     * is to move ]
+     */
+    public boolean play(int c) {
+        int row = heights[c];
+        char p = players[current];
+        boolean won = threats != null && threats.isThreat(row, c, p);
+
+        board.placeToken(p, c);
+        evaluator.placeToken(p, c);
+        if(threats != null) {
+            threats.placeToken(p, c);
+        }
+        if(network != null) {
+            network.place(row, c, current);
+        }
+        key ^= tokenKeys[table.cell(row, c) * players.length + current] ^ sideKeys[current];
+        mirrorKey ^= tokenKeys[table.cell(row, numCol - 1 - c) * players.length + current] ^ sideKeys[current];
+        heights[c]++;
+        tokens++;
+        moves[numMoves++] = c;
+
+        current = (current + 1) % players.length;
+        key ^= sideKeys[current];
+        mirrorKey ^= sideKeys[current];
+
+        if(threats == null) {
+            won = table.hasWinThrough(board, new BoardPosition(row, c), p, -1);
+        }
+        return won;
+    }
+
+    /**
+     * <p>
+     * This undoes the most recent move made with play.
+     * </p>
+     *
+     * @pre [ at least one move was made with play ]
+     * @post [ the board, evaluator, threat map, key and player to move are as before that move ]
+     */
+    public void undo() {
+        int c = moves[--numMoves];
+        key ^= sideKeys[current];
+        mirrorKey ^= sideKeys[current];
+        current = (current + players.length - 1) % players.length;
+
+        heights[c]--;
+        tokens--;
+        board.removeToken(c);
+        evaluator.undo(c);
+        if(threats != null) {
+            threats.undo(c);
+        }
+        if(network != null) {
+            network.remove(heights[c], c, current);
+        }
+        key ^= tokenKeys[table.cell(heights[c], c) * players.length + current] ^ sideKeys[current];
+        mirrorKey ^= tokenKeys[table.cell(heights[c], numCol - 1 - c) * players.length + current] ^ sideKeys[current];
+    }
+
+    /**
+     * <p>
+     * This scores the position for the player to move using the network if one is set, and
+     * otherwise the window evaluator. The network values positions for the player who just
+     * moved, so its value for the previous player is negated.
+     * </p>
+     *
+     * @return the score from the point of view of the player to move
+     */
+    public long evaluate() {
+        if(network != null) {
+            int previous = (current + players.length - 1) % players.length;
+            return -Math.round(network.getValue(previous) * NETWORK_SCALE);
+        }
+        return evaluator.getScore(players[current]);
+    }
+
+    /**
+     * <p>
+     * This sets the network evaluate uses, or goes back to the window evaluator.
+     * </p>
+     *
+     * @param trained
+     *      The network to score positions with, or null
+     *
+     * @pre trained is null or [ has this board's size ]
+     * @post [ evaluate uses trained if it is not null ]
+     */
+    public void setNetwork(NTupleNetwork trained) {
+        network = trained == null ? null : new NTupleEvaluator(trained, board, players);
+    }
+
+    /**
+     * <p>
+     * This gets the columns the player to move must choose from: the columns that win for them,
+     * or if there are none, the columns that win for the next player and so have to be blocked.
+     * </p>
+     *
+     * @return a mask with bit c set for every must-play column c, or 0 if any move may be played
+     */
+    public long getForcedColumns() {
+        long wins = getWinningColumns(current);
+        if(wins != 0) {
+            return wins;
+        }
+        return getWinningColumns((current + 1) % players.length);
+    }
+
+    /**
+     * <p>
+     * This gets the columns a player would win in by playing there now.
+     * </p>
+     *
+     * @param player
+     *      The index in players of the player
+     * @return a mask with bit c set for every winning column c, or 0 if there is no threat map
+     */
+    public long getWinningColumns(int player) {
+        return threats == null ? 0 : threats.getWinningColumns(players[player]);
+    }
+
+    public boolean canPlay(int c) {
+        return heights[c] < numRow;
+    }
+
+    public boolean isFull() {
+        return tokens == numRow * numCol;
+    }
+
+    public int getHeight(int c) {
+        return heights[c];
+    }
+
+    public long getKey() {
+        return key;
+    }
+
+    public long getMirrorKey() {
+        return mirrorKey;
+    }
+
+    /**
+     * <p>
+     * This gets the key shared by the position and its mirror image.
+     * </p>
+     *
+     * @return the smaller of getKey() and getMirrorKey()
+     */
+    public long getCanonicalKey() {
+        return Math.min(key, mirrorKey);
+    }
+
+    /**
+     * <p>
+     * This translates a column between the board and the orientation of the canonical key. It
+     * works in both directions, since mirroring twice changes nothing.
+     * </p>
+     *
+     * @param c
+     *      The column to translate
+     * @return c mirrored if the canonical key is the mirror image's key, otherwise c
+     *
+     * @pre 0 <= c < getNumColumns()
+     */
+    public int canonicalColumn(int c) {
+        return mirrorKey < key ? numCol - 1 - c : c;
+    }
+
+    public int getCurrentPlayer() {
+        return current;
+    }
+
+    public int getNumPlayers() {
+        return players.length;
+    }
+
+    public int getNumColumns() {
+        return numCol;
+    }
+
+    public int getNumRows() {
+        return numRow;
+    }
+
+    public int getNumMoves() {
+        return numMoves;
+    }
+
+    public char getPlayerChar(int index) {
+        return players[index];
+    }
+
+    public IGameBoard getBoard() {
+        return board;
+    }
+
+    public WindowEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * <p>
+     * This gets the threat map kept with the board.
+     * </p>
+     *
+     * @return the threat map, or null if the board is wider than ThreatMap.MAX_COLUMNS
+     */
+    public ThreatMap getThreats() {
+        return threats;
+    }
+
+    private int playerIndex(char p) {
+        for(int i = 0; i < players.length; i++) {
+            if(players[i] == p) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown player " + p);
+    }
+}
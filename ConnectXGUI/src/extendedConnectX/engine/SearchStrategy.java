@@ -0,0 +1,28 @@
+package cpsc2150.extendedConnectX.engine;
+
+/**
+ * A strategy that plays the best move found by {@link AlphaBetaSearch} to a fixed depth. The
+ * search is kept for the whole game with a small transposition table of its own, so no result
+ * carries over from another game, board or evaluator and a game plays the same on any thread;
+ * tournaments create a strategy for every seat of every game, and a default size table each
+ * would cost more than small games.
+ *
+ * @version 3.0
+ */
+public class SearchStrategy implements Strategy {
+
+    public static final int TABLE_SIZE_MB = 1;
+
+    private final AlphaBetaSearch search;
+    private final int depth;
+
+    public SearchStrategy(int depth, boolean ordering) {
+        search = new AlphaBetaSearch(ordering, new TranspositionTable(TABLE_SIZE_MB));
+        this.depth = depth;
+    }
+
+    @Override
+    public int chooseMove(SearchBoard board) {
+        return search.search(board, depth);
+    }
+}
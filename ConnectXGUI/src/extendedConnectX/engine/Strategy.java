@@ -0,0 +1,93 @@
+package cpsc2150.extendedConnectX.engine;
+
+import java.nio.file.Paths;
+
+/**
+ * A way of choosing moves for one seat of a game. A strategy may keep state between moves of
+ * the same game, so every game gets new strategies from {@link #create}; given the same
+ * spec, seed and moves, a strategy always chooses the same columns, unless the spec has a time
+ * limit, see {@link #isTimed}.
+ *
+ * @version 3.0
+ */
+public interface Strategy {
+
+    /**
+     * <p>
+     * This chooses a move for the player to move.
+     * </p>
+     *
+     * @param board
+     *      The position, restored when this returns
+     * @return the column to play
+     *
+     * @pre [ board is not full and the game is not over ]
+     * @post board.canPlay(chooseMove)
+     */
+    int chooseMove(SearchBoard board);
+
+    /**
+     * <p>
+     * This creates a strategy from its spec: "random", "greedy", "ab:depth" for
+     * {@link AlphaBetaSearch}, with ":plain" added to turn move ordering off, or "maxn:depth" and
+     * "paranoid:depth" for {@link MultiPlayerSearch}, with ":millis" added for a time limit, or
+     * "ntuple:file" for {@link NTupleStrategy}, with ":depth" added to search with the network.
+     * A time-limited search stops at whatever depth the clock allows, so its moves depend on the
+     * speed and load of the machine and are not reproducible.
+     * </p>
+     *
+     * @param spec
+     *      The strategy to create
+     * @param seed
+     *      The seed for any random choices
+     * @return a new strategy for one game
+     * @throws IllegalArgumentException if spec is not a known strategy
+     */
+    static Strategy create(String spec, long seed) {
+        String[] parts = spec.split(":");
+        switch(parts[0]) {
+            case "random":
+                return new RandomStrategy(seed);
+            case "greedy":
+                return new GreedyStrategy(seed);
+            case "ab":
+                if(parts.length < 2) {
+                    break;
+                }
+                int depth = Integer.parseInt(parts[1]);
+                boolean ordering = !(parts.length > 2 && parts[2].equals("plain"));
+                return new SearchStrategy(depth, ordering);
+            case "maxn":
+            case "paranoid":
+                if(parts.length < 2) {
+                    break;
+                }
+                int mode = parts[0].equals("maxn") ? MultiPlayerSearch.MAX_N : MultiPlayerSearch.PARANOID;
+                long millis = parts.length > 2 ? Long.parseLong(parts[2]) : 0;
+                return new MultiPlayerStrategy(mode, Integer.parseInt(parts[1]), millis);
+            case "ntuple":
+                if(parts.length < 2) {
+                    break;
+                }
+                int searchDepth = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+                return new NTupleStrategy(NTupleNetwork.load(Paths.get(parts[1])), searchDepth, seed);
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown strategy " + spec);
+    }
+
+    /**
+     * <p>
+     * This checks if a spec has a time limit, which makes its moves depend on the machine.
+     * </p>
+     *
+     * @param spec
+     *      The strategy spec
+     * @return true if spec is "maxn:depth:millis" or "paranoid:depth:millis"
+     */
+    static boolean isTimed(String spec) {
+        String[] parts = spec.split(":");
+        return (parts[0].equals("maxn") || parts[0].equals("paranoid")) && parts.length > 2;
+    }
+}
@@ -0,0 +1,344 @@
+package cpsc2150.extendedConnectX.engine;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class plays a round-robin tournament between {@link Strategy} specs and rates them with
+ * Elo. Every pair of strategies plays on every board for every seed, once from each seat, since
+ * player X always moves first. Both games of a seed start from the same random opening, so a
+ * pair's games only differ in who sits where.
+ * <p>
+ * Games are numbered, and everything random in a game is derived from the tournament seed and
+ * the game's number, so a tournament is reproduced exactly by running it again with the same
+ * arguments, on any number of threads. Worker threads take the next game number from a counter
+ * and keep only the score tables, so memory does not grow with the number of games.
+ *
+ * @version 3.0
+ *
+ * @invariant [ score[a][b] + score[b][a] = games[a][b] ]
+ */
+public class Tournament {
+
+    private static final char[] PLAYERS = {'X', 'O'};
+    private static final double Z_95 = 1.96;
+    private static final int ELO_ITERATIONS = 1000;
+
+    private final String[] strategies;
+    private final int[][] boards;
+    private final int seeds;
+    private final long seed;
+    private final int openingPlies;
+    private final int numPairs;
+
+    private final double[][] score;
+    private final int[][] games;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * <p>
+     * This creates a tournament.
+     * </p>
+     *
+     * @param strategies
+     *      The strategy specs, see {@link Strategy#create}
+     * @param boards
+     *      The boards to play on, each {rows, cols, numToWin}
+     * @param seeds
+     *      How many openings each pair plays on each board
+     * @param seed
+     *      The tournament seed
+     * @param openingPlies
+     *      How many random moves start every game
+     *
+     * @pre strategies.length >= 2 AND seeds >= 1 AND openingPlies >= 0
+     *      AND [ ConnectXGame.validate accepts every board with two players ]
+     */
+    public Tournament(String[] strategies, int[][] boards, int seeds, long seed, int openingPlies) {
+        this.strategies = strategies.clone();
+        this.boards = boards.clone();
+        this.seeds = seeds;
+        this.seed = seed;
+        this.openingPlies = openingPlies;
+        numPairs = strategies.length * (strategies.length - 1) / 2;
+        score = new double[strategies.length][strategies.length];
+        games = new int[strategies.length][strategies.length];
+    }
+
+    public int getNumGames() {
+        return numPairs * boards.length * seeds * 2;
+    }
+
+    /**
+     * <p>
+     * This plays every game of the tournament.
+     * </p>
+     *
+     * @param threads
+     *      How many games to play at once
+     * @throws InterruptedException if interrupted while waiting for the games
+     */
+    public void run(int threads) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for(int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                for(int game = next.getAndIncrement(); game < getNumGames(); game = next.getAndIncrement()) {
+                    play(game);
+                }
+            }, "tournament-" + i);
+            workers[i].start();
+        }
+        for(Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void play(int game) {
+        //game = ((pair * boards + board) * seeds + seedIndex) * 2 + swap
+        int swap = game % 2;
+        int opening = game / 2;
+        int[] config = boards[opening / seeds % boards.length];
+        int pair = opening / seeds / boards.length;
+
+        int a = 0;
+        while(pair >= strategies.length - 1 - a) {
+            pair -= strategies.length - 1 - a;
+            a++;
+        }
+        int b = a + 1 + pair;
+        int[] seat = swap == 0 ? new int[]{a, b} : new int[]{b, a};
+
+        SearchBoard board = new SearchBoard(ConnectXGame.createBoard(config[0], config[1], config[2]), PLAYERS, 0);
+        long openingSeed = mix(seed ^ mix(opening));
+        Strategy[] players = {
+                Strategy.create(strategies[seat[0]], mix(openingSeed + 1)),
+                Strategy.create(strategies[seat[1]], mix(openingSeed + 2)),
+        };
+
+        playOpening(board, new SplittableRandom(openingSeed));
+        int winner = -1;
+        while(winner < 0 && !board.isFull()) {
+            int mover = board.getCurrentPlayer();
+            if(board.play(players[mover].chooseMove(board))) {
+                winner = mover;
+            }
+        }
+
+        double first = winner < 0 ? 0.5 : winner == 0 ? 1 : 0;
+        record(seat[0], seat[1], first);
+    }
+
+    //random moves that do not win, the same for both seats
+    private void playOpening(SearchBoard board, SplittableRandom random) {
+        for(int ply = 0; ply < openingPlies && !board.isFull(); ply++) {
+            int start = random.nextInt(board.getNumColumns());
+            int played = -1;
+            for(int i = 0; i < board.getNumColumns() && played < 0; i++) {
+                int c = (start + i) % board.getNumColumns();
+                if(board.canPlay(c)) {
+                    if(board.play(c)) {
+                        board.undo();
+                    }
+                    else {
+                        played = c;
+                    }
+                }
+            }
+            if(played < 0) {
+                return;
+            }
+        }
+    }
+
+    private synchronized void record(int first, int second, double result) {
+        score[first][second] += result;
+        score[second][first] += 1 - result;
+        games[first][second]++;
+        games[second][first]++;
+    }
+
+    /**
+     * <p>
+     * This fits Elo ratings to the results with the Bradley-Terry model, counting a draw as half
+     * a win for each side. Every pair is given one extra drawn game so that a strategy that won
+     * or lost every game still gets a finite rating.
+     * </p>
+     *
+     * @return the rating of each strategy, with the average rating at 0
+     */
+    public synchronized double[] getRatings() {
+        int n = strategies.length;
+        double[] gamma = new double[n];
+        Arrays.fill(gamma, 1);
+
+        for(int iter = 0; iter < ELO_ITERATIONS; iter++) {
+            for(int i = 0; i < n; i++) {
+                double wins = 0;
+                double denominator = 0;
+                for(int j = 0; j < n; j++) {
+                    if(i != j) {
+                        wins += score[i][j] + 0.5;
+                        denominator += (games[i][j] + 1) / (gamma[i] + gamma[j]);
+                    }
+                }
+                gamma[i] = wins / denominator;
+            }
+        }
+
+        double[] elo = new double[n];
+        double mean = 0;
+        for(int i = 0; i < n; i++) {
+            elo[i] = 400 * Math.log10(gamma[i]);
+            mean += elo[i] / n;
+        }
+        for(int i = 0; i < n; i++) {
+            elo[i] -= mean;
+        }
+        return elo;
+    }
+
+    /**
+     * <p>
+     * This estimates the half width of the 95% confidence interval of each rating. The variance
+     * of a game result is taken to be that of a win or loss at the observed score, which draws
+     * can only lower, so the interval errs on the wide side.
+     * </p>
+     *
+     * @return the interval half width of each rating, in Elo
+     */
+    public synchronized double[] getErrors() {
+        double[] errors = new double[strategies.length];
+
+        for(int i = 0; i < strategies.length; i++) {
+            int played = 0;
+            double total = 0;
+            for(int j = 0; j < strategies.length; j++) {
+                played += games[i][j];
+                total += score[i][j];
+            }
+            if(played == 0) {
+                errors[i] = Double.POSITIVE_INFINITY;
+                continue;
+            }
+
+            //slope of the Elo curve at the observed score, kept away from 0% and 100%
+            double mean = Math.min(Math.max(total / played, 0.01), 0.99);
+            double variance = mean * (1 - mean);
+            double slope = 400 / (Math.log(10) * variance);
+            errors[i] = Z_95 * Math.sqrt(variance / played) * slope;
+        }
+
+        return errors;
+    }
+
+    /**
+     * <p>
+     * This prints the ratings and the score of every strategy against every other.
+     * </p>
+     */
+    public synchronized void printResults() {
+        double[] elo = getRatings();
+        double[] errors = getErrors();
+        Integer[] order = new Integer[strategies.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Double.compare(elo[y], elo[x]));
+
+        System.out.printf("%-4s %-16s %8s %6s %7s%n", "rank", "strategy", "elo", "+/-", "games");
+        for(int r = 0; r < order.length; r++) {
+            int i = order[r];
+            System.out.printf("%-4d %-16s %8.1f %6.1f %7d%n", r + 1, strategies[i], elo[i], errors[i],
+                    Arrays.stream(games[i]).sum());
+        }
+
+        System.out.println();
+        System.out.printf("%-16s", "score vs");
+        for(int j : order) {
+            System.out.printf(" %8s", abbreviate(strategies[j]));
+        }
+        System.out.println();
+        for(int i : order) {
+            System.out.printf("%-16s", strategies[i]);
+            for(int j : order) {
+                System.out.printf(i == j ? " %8s" : " %7.1f%%", i == j ? "-" : 100 * score[i][j] / games[i][j]);
+            }
+            System.out.println();
+        }
+    }
+
+    private static String abbreviate(String s) {
+        return s.length() <= 8 ? s : s.substring(0, 8);
+    }
+
+    //64 bit finalizer from MurmurHash3, so nearby game numbers get unrelated seeds
+    static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    /**
+     * <p>
+     * This is the tournament entry point.
+     * </p>
+     *
+     * @param args
+     *      strategies boards [seeds=20] [seed=2150] [opening=2], where strategies is a comma separated
+     *      list such as random,greedy,ab:4 and boards is a comma separated list such as 6x7x4,5x5x4
+     *      (rows x columns x number to win)
+     * @throws InterruptedException if interrupted while playing
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if(args.length < 2) {
+            System.err.println("usage: Tournament strategies boards [seeds=20] [seed=2150] [opening=2]");
+            System.exit(2);
+        }
+
+        String[] strategies = args[0].split(",");
+        List<int[]> boards = new ArrayList<>();
+        for(String spec : args[1].split(",")) {
+            String[] parts = spec.split("x");
+            int[] board = {Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+            String error = ConnectXGame.validate(board[0], board[1], PLAYERS.length, board[2]);
+            if(!error.equals("")) {
+                System.err.println(spec + ": " + error);
+                System.exit(2);
+            }
+            boards.add(board);
+        }
+        for(String strategy : strategies) {
+            Strategy.create(strategy, 0);
+            if(Strategy.isTimed(strategy)) {
+                System.err.println(strategy + ": time-limited strategies cannot be reproduced, give a depth only");
+                System.exit(2);
+            }
+        }
+        if(strategies.length < 2) {
+            System.err.println("A tournament needs at least two strategies");
+            System.exit(2);
+        }
+
+        int seeds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 2150;
+        int opening = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        Tournament tournament = new Tournament(strategies, boards.toArray(new int[0][]), seeds, seed, opening);
+        long start = System.nanoTime();
+        tournament.run(threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        tournament.printResults();
+        System.out.printf("%n%d games on %d threads in %.1f s (%.1f games/s)%n", tournament.getNumGames(), threads,
+                seconds, tournament.getNumGames() / seconds);
+    }
+}
@@ -0,0 +1,314 @@
+package cpsc2150.extendedConnectX.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class that remembers the results of searched positions by their Zobrist key so that
+ * positions reached through different move orders are only searched once, and so that the best
+ * move found last time can be tried first.
+ * <p>
+ * The table is a fixed block of memory outside the Java heap, so it costs the garbage collector
+ * nothing however large it is. It is allocated in direct buffers of up to a gigabyte each, so
+ * tables larger than one ByteBuffer can address are possible. It is split into buckets of two 16 byte entries. An entry is a
+ * check word, key ^ data, followed by the data word, which packs the value, depth, bound flag,
+ * best move and the search generation that stored it. Writers never lock: if two threads write
+ * the same entry at once, or a reader sees half of a write, the check word no longer matches the
+ * key and the entry is treated as a miss. This makes the table safe to share between searcher
+ * threads.
+ * <p>
+ * The first entry of a bucket keeps the deepest result, unless it was stored by an older search;
+ * the second entry always takes the newest result that the first one refused.
+ * <p>
+ * Probes return the data word, or 0 for a miss; use value, depth, flag and move to unpack it.
+ * Values are stored in 40 bits: scores within WIN_RANGE of AlphaBetaSearch.WIN_SCORE keep their
+ * distance to a win exactly, every other score is clamped to +/- MAX_VALUE, far beyond what the
+ * window evaluator produces on a MAX_SIZE board.
+ *
+ * @version 3.0
+ *
+ * @invariant [ every entry whose check word matches its key was stored by a search of the
+ *            position with that key ] AND [ the number of buckets is a power of two ]
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    public static final int DEFAULT_SIZE_MB = 8;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_BYTES = 2 * ENTRY_BYTES;
+    private static final int SEGMENT_SHIFT = 30;
+
+    //data word layout, from the low bits: move + 1, valid, flag, depth, generation, value;
+    //moves up to MAX_COL - 1 fit in MOVE_BITS
+    private static final int MOVE_BITS = 7;
+    private static final int MOVE_MASK = (1 << MOVE_BITS) - 1;
+    private static final long VALID = 1L << MOVE_BITS;
+    private static final int FLAG_SHIFT = MOVE_BITS + 1;
+    private static final int DEPTH_SHIFT = FLAG_SHIFT + 2;
+    private static final int AGE_SHIFT = DEPTH_SHIFT + 8;
+    private static final int AGE_BITS = 6;
+    private static final int VALUE_SHIFT = AGE_SHIFT + AGE_BITS;
+
+    private static final long VALUE_LIMIT = (1L << (63 - VALUE_SHIFT)) - 1;
+    private static final long WIN_RANGE = 1L << 20;
+    private static final long MAX_VALUE = VALUE_LIMIT - WIN_RANGE;
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer[] segments;
+    private final long mask;
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder overwrites = new LongAdder();
+
+    /**
+     * <p>
+     * This creates a table of DEFAULT_SIZE_MB megabytes.
+     * </p>
+     */
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * <p>
+     * This creates a table.
+     * </p>
+     *
+     * @param sizeMB
+     *      The size of the table in megabytes, rounded down to a power of two
+     *
+     * @pre sizeMB >= 1
+     */
+    public TranspositionTable(int sizeMB) {
+        long buckets = Long.highestOneBit((long) sizeMB * 1024 * 1024 / BUCKET_BYTES);
+        long bytes = buckets * BUCKET_BYTES;
+        int segmentBytes = (int) Math.min(bytes, 1L << SEGMENT_SHIFT);
+        segments = new ByteBuffer[(int) (bytes / segmentBytes)];
+        for(int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentBytes).order(ByteOrder.nativeOrder());
+        }
+        mask = buckets - 1;
+    }
+
+    /**
+     * <p>
+     * This looks up a position.
+     * </p>
+     *
+     * @param key
+     *      The Zobrist key of the position
+     * @return the data word of the stored entry, or 0 if the position is not in the table
+     */
+    public long probe(long key) {
+        probes.increment();
+        ByteBuffer memory = segmentOf(key);
+        int bucket = bucketOf(key);
+        boolean occupied = false;
+
+        for(int offset = bucket; offset < bucket + BUCKET_BYTES; offset += ENTRY_BYTES) {
+            long check = (long) LONGS.getOpaque(memory, offset);
+            long data = (long) LONGS.getOpaque(memory, offset + 8);
+            if(data == 0) {
+                continue;
+            }
+            if((check ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+            occupied = true;
+        }
+
+        if(occupied) {
+            collisions.increment();
+        }
+        return 0;
+    }
+
+    /**
+     * <p>
+     * This stores a search result.
+     * </p>
+     *
+     * @param key
+     *      The Zobrist key of the position
+     * @param value
+     *      The value found
+     * @param depth
+     *      The remaining depth the value was searched to
+     * @param flag
+     *      EXACT, LOWER or UPPER bound
+     * @param move
+     *      The best move found, or -1
+     *
+     * @pre depth >= 0 AND -1 <= move < MAX_COL
+     * @post [ the result is in the table unless the bucket holds a deeper result of the current
+     *       search for another position and a result for yet another one ]
+     */
+    public void store(long key, long value, int depth, int flag, int move) {
+        stores.increment();
+        int age = generation;
+        long data = pack(value, depth, flag, move, age);
+        ByteBuffer memory = segmentOf(key);
+        int first = bucketOf(key);
+        int second = first + ENTRY_BYTES;
+
+        long firstData = (long) LONGS.getOpaque(memory, first + 8);
+        long firstKey = (long) LONGS.getOpaque(memory, first) ^ firstData;
+        boolean replaceFirst = firstData == 0 || firstKey == key || age(firstData) != age
+                || depth(firstData) <= depth;
+
+        int target = replaceFirst ? first : second;
+        if(!replaceFirst) {
+            long secondData = (long) LONGS.getOpaque(memory, second + 8);
+            if(secondData != 0 && ((long) LONGS.getOpaque(memory, second) ^ secondData) != key) {
+                overwrites.increment();
+            }
+        }
+        else if(firstData != 0 && firstKey != key) {
+            overwrites.increment();
+        }
+
+        LONGS.setOpaque(memory, target, key ^ data);
+        LONGS.setOpaque(memory, target + 8, data);
+    }
+
+    /**
+     * <p>
+     * This starts a new search: entries of earlier searches are kept, but are the first to be
+     * replaced.
+     * </p>
+     */
+    public void newSearch() {
+        generation = (generation + 1) & ((1 << AGE_BITS) - 1);
+    }
+
+    /**
+     * <p>
+     * This empties the table and resets the statistics.
+     * </p>
+     */
+    public void clear() {
+        for(ByteBuffer memory : segments) {
+            for(int offset = 0; offset < memory.capacity(); offset += 8) {
+                LONGS.setOpaque(memory, offset, 0L);
+            }
+        }
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+        stores.reset();
+        overwrites.reset();
+    }
+
+    public static long value(long data) {
+        long stored = data >> VALUE_SHIFT;
+        if(stored > MAX_VALUE) {
+            return AlphaBetaSearch.WIN_SCORE - (VALUE_LIMIT - stored);
+        }
+        if(stored < -MAX_VALUE) {
+            return -AlphaBetaSearch.WIN_SCORE + (VALUE_LIMIT + stored);
+        }
+        return stored;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int flag(long data) {
+        return (int) (data >>> FLAG_SHIFT) & 3;
+    }
+
+    public static int move(long data) {
+        return (int) (data & MOVE_MASK) - 1;
+    }
+
+    public long getSizeBytes() {
+        return (long) segments.length * segments[0].capacity();
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * <p>
+     * This gets the number of probes that missed even though the bucket was in use by other
+     * positions.
+     * </p>
+     *
+     * @return the number of colliding probes
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * <p>
+     * This gets the number of stores that replaced an entry for another position.
+     * </p>
+     *
+     * @return the number of overwrites
+     */
+    public long getOverwrites() {
+        return overwrites.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d MB, %d probes, %d hits, %d collisions, %d stores, %d overwrites",
+                getSizeBytes() >> 20, getProbes(), getHits(), getCollisions(), getStores(), getOverwrites());
+    }
+
+    private ByteBuffer segmentOf(long key) {
+        return segments[(int) (((key & mask) * BUCKET_BYTES) >>> SEGMENT_SHIFT)];
+    }
+
+    //the offset of the bucket within its segment
+    private int bucketOf(long key) {
+        return (int) (((key & mask) * BUCKET_BYTES) & ((1L << SEGMENT_SHIFT) - 1));
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & ((1 << AGE_BITS) - 1);
+    }
+
+    private static long pack(long value, int depth, int flag, int move, int age) {
+        long stored;
+        if(value > AlphaBetaSearch.WIN_SCORE - WIN_RANGE) {
+            stored = VALUE_LIMIT - (AlphaBetaSearch.WIN_SCORE - value);
+        }
+        else if(value < -AlphaBetaSearch.WIN_SCORE + WIN_RANGE) {
+            stored = -VALUE_LIMIT + (AlphaBetaSearch.WIN_SCORE + value);
+        }
+        else {
+            stored = Math.max(-MAX_VALUE, Math.min(MAX_VALUE, value));
+        }
+
+        //a shallower depth only makes the entry less useful, never wrong
+        depth = Math.min(depth, 0xFF);
+        return stored << VALUE_SHIFT | (long) age << AGE_SHIFT | (long) depth << DEPTH_SHIFT
+                | (long) flag << FLAG_SHIFT | VALID | ((move + 1) & MOVE_MASK);
+    }
+}
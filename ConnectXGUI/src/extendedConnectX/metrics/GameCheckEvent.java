@@ -0,0 +1,35 @@
+package cpsc2150.extendedConnectX.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for one checkForWin or checkTie call on a board.
+ *
+ * @version 3.0
+ */
+@Name("cpsc2150.extendedConnectX.GameCheck")
+@Label("Win/Tie Check")
+@Category({"Connect X"})
+@StackTrace(false)
+@Description("A checkForWin or checkTie call on an IGameBoard")
+public class GameCheckEvent extends Event {
+
+    @Label("Check")
+    @Description("win or tie")
+    public String check;
+
+    @Label("Column")
+    @Description("The column checked for a win, -1 for a tie check")
+    public int column;
+
+    @Label("Result")
+    public boolean result;
+
+    @Label("Board Implementation")
+    public String boardImplementation;
+}
@@ -0,0 +1,101 @@
+package cpsc2150.extendedConnectX.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds. Values are bucketed by their highest set bit
+ * and the next SUB_BITS bits, so every bucket is within 1 / 2^SUB_BITS of the values in it, and
+ * recording a value is a few shifts and one atomic increment.
+ *
+ * @version 3.0
+ *
+ * @invariant [ buckets[i] = number of recorded values that fell in bucket i ]
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * <p>
+     * This records one value.
+     * </p>
+     *
+     * @param nanos
+     *      The duration, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucket(value));
+        count.increment();
+        total.add(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * <p>
+     * This finds the value below which the fraction p of the recorded values fall.
+     * </p>
+     *
+     * @param p
+     *      The fraction, between 0 and 1
+     * @return the upper bound of the bucket holding the p-th value, or 0 if nothing was recorded
+     */
+    public long percentile(double p) {
+        long n = 0;
+        for(int i = 0; i < buckets.length(); i++) {
+            n += buckets.get(i);
+        }
+        if(n == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(p * n);
+        long seen = 0;
+        for(int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if(seen >= rank && buckets.get(i) > 0) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(buckets.length() - 1);
+    }
+
+    public void reset() {
+        for(int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+    }
+
+    private static int bucket(long value) {
+        if(value < SUB_COUNT) {
+            return (int) value;
+        }
+        int high = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (high - SUB_BITS)) & (SUB_COUNT - 1);
+        return (high - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if(bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int high = bucket / SUB_COUNT + SUB_BITS - 1;
+        long sub = bucket % SUB_COUNT;
+        return ((SUB_COUNT + sub + 1) << (high - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,226 @@
+package cpsc2150.extendedConnectX.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+/**
+ * This class collects counts of board model calls per board implementation, and latency and
+ * allocation statistics for button clicks and computer move selection.
+ * <p>
+ * Metrics are off unless the JVM is started with {@code -Dconnectx.metrics=true}. Every call site
+ * is guarded by {@code if(Metrics.ENABLED)}; since ENABLED is a static final constant, the JIT
+ * removes the guarded code entirely when metrics are off. When on, the metrics are published
+ * through JMX as a {@link MetricsMXBean} and printed to standard error when the JVM exits.
+ * <p>
+ * The Flight Recorder events of the models and searches are created only while EVENTS is on,
+ * which it is unless the JVM is started with {@code -Dconnectx.events=false}. Loading the
+ * Flight Recorder classes costs a noticeable part of startup, which matters to the console
+ * launcher.
+ *
+ * @version 3.0
+ */
+public final class Metrics implements MetricsMXBean {
+
+    public static final boolean ENABLED = Boolean.getBoolean("connectx.metrics");
+    public static final boolean EVENTS = !"false".equals(System.getProperty("connectx.events"));
+
+    /**
+     * <p>
+     * Counted model calls.
+     * </p>
+     */
+    public static final int WHATS_AT_POS = 0;
+    public static final int PLACE_TOKEN = 1;
+    public static final int CHECK_FOR_WIN = 2;
+    private static final String[] CALL_NAMES = {"whatsAtPos", "placeToken", "checkForWin"};
+
+    /**
+     * <p>
+     * Timed operations.
+     * </p>
+     */
+    public static final int BUTTON_CLICK = 0;
+    public static final int AI_MOVE = 1;
+    private static final String[] OPERATION_NAMES = {"processButtonClick", "aiMoveSelection"};
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    //one counter per call per board class, looked up without locking or allocating
+    private static final ClassValue<LongAdder[]> CALLS = new ClassValue<LongAdder[]>() {
+        @Override
+        protected LongAdder[] computeValue(Class<?> type) {
+            LongAdder[] adders = new LongAdder[CALL_NAMES.length];
+            for(int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+            INSTANCE.boardClasses.put(type.getSimpleName(), adders);
+            return adders;
+        }
+    };
+
+    //the management classes are slow to start, so they are only loaded when metrics are on
+    private static final ThreadMXBean THREADS = ENABLED ? ManagementFactory.getThreadMXBean() : null;
+    private static final boolean ALLOCATION_SUPPORTED = allocationSupported();
+
+    private final Map<String, LongAdder[]> boardClasses = new ConcurrentSkipListMap<>();
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATION_NAMES.length];
+    private final LongAdder[] allocatedBytes = new LongAdder[OPERATION_NAMES.length];
+
+    static {
+        if(ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE,
+                        new ObjectName("cpsc2150.extendedConnectX:type=Metrics"));
+            }
+            catch(Exception e) {
+                System.err.println("Could not register metrics MBean: " + e.getMessage());
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(INSTANCE.dump())));
+        }
+    }
+
+    private Metrics() {
+        for(int i = 0; i < OPERATION_NAMES.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            allocatedBytes[i] = new LongAdder();
+        }
+    }
+
+    public static Metrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * <p>
+     * This counts one model call made on a board.
+     * </p>
+     *
+     * @param call
+     *      WHATS_AT_POS, PLACE_TOKEN or CHECK_FOR_WIN
+     * @param board
+     *      The board the call was made on
+     *
+     * @pre ENABLED
+     */
+    public static void count(int call, Object board) {
+        CALLS.get(board.getClass())[call].increment();
+    }
+
+    /**
+     * <p>
+     * This returns the bytes allocated so far by the current thread, for passing to record.
+     * </p>
+     *
+     * @return the allocated bytes, or 0 if the JVM cannot measure them
+     */
+    public static long allocatedBytes() {
+        if(!ALLOCATION_SUPPORTED) {
+            return 0;
+        }
+        return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * <p>
+     * This records one timed operation that started at startNanos with startAllocated bytes
+     * allocated by this thread.
+     * </p>
+     *
+     * @param operation
+     *      BUTTON_CLICK or AI_MOVE
+     * @param startNanos
+     *      System.nanoTime() when the operation started
+     * @param startAllocated
+     *      allocatedBytes() when the operation started
+     *
+     * @pre ENABLED
+     */
+    public static void record(int operation, long startNanos, long startAllocated) {
+        INSTANCE.latencies[operation].record(System.nanoTime() - startNanos);
+        if(ALLOCATION_SUPPORTED) {
+            INSTANCE.allocatedBytes[operation].add(allocatedBytes() - startAllocated);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCallCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for(Map.Entry<String, LongAdder[]> entry : boardClasses.entrySet()) {
+            for(int i = 0; i < CALL_NAMES.length; i++) {
+                counts.put(entry.getKey() + "." + CALL_NAMES[i], entry.getValue()[i].sum());
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getLatencies() {
+        Map<String, Long> values = new TreeMap<>();
+        for(int i = 0; i < OPERATION_NAMES.length; i++) {
+            LatencyHistogram histogram = latencies[i];
+            String name = OPERATION_NAMES[i];
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".p50Nanos", histogram.percentile(0.50));
+            values.put(name + ".p99Nanos", histogram.percentile(0.99));
+            values.put(name + ".p999Nanos", histogram.percentile(0.999));
+            values.put(name + ".allocatedBytes", allocatedBytes[i].sum());
+        }
+        return values;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder text = new StringBuilder("Connect X metrics\n");
+        for(Map.Entry<String, Long> entry : getCallCounts().entrySet()) {
+            text.append(String.format("  %-32s %14d%n", entry.getKey(), entry.getValue()));
+        }
+
+        for(int i = 0; i < OPERATION_NAMES.length; i++) {
+            LatencyHistogram histogram = latencies[i];
+            long n = histogram.getCount();
+            text.append(String.format("  %-20s n=%d p50=%.1fus p99=%.1fus p999=%.1fus alloc/op=%dB%n",
+                    OPERATION_NAMES[i], n, histogram.percentile(0.50) / 1e3, histogram.percentile(0.99) / 1e3,
+                    histogram.percentile(0.999) / 1e3, n == 0 ? 0 : allocatedBytes[i].sum() / n));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void reset() {
+        for(LongAdder[] adders : boardClasses.values()) {
+            for(LongAdder adder : adders) {
+                adder.reset();
+            }
+        }
+        for(int i = 0; i < OPERATION_NAMES.length; i++) {
+            latencies[i].reset();
+            allocatedBytes[i].reset();
+        }
+    }
+
+    //with metrics off this must not touch the management classes, nor turn on the JVM's
+    //per-thread allocation accounting
+    private static boolean allocationSupported() {
+        if(!ENABLED) {
+            return false;
+        }
+        try {
+            if(THREADS instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+                if(threads.isThreadAllocatedMemorySupported()) {
+                    threads.setThreadAllocatedMemoryEnabled(true);
+                    return true;
+                }
+            }
+        }
+        catch(UnsupportedOperationException | NoClassDefFoundError e) {
+            //not a HotSpot-style JVM
+        }
+        return false;
+    }
+}
@@ -0,0 +1,34 @@
+package cpsc2150.extendedConnectX.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link Metrics}, registered as {@code cpsc2150.extendedConnectX:type=Metrics}
+ * when metrics are enabled.
+ *
+ * @version 3.0
+ */
+public interface MetricsMXBean {
+
+    /**
+     * @return the number of calls per "implementation.method", e.g. "GameBoard.whatsAtPos"
+     */
+    Map<String, Long> getCallCounts();
+
+    /**
+     * @return "operation.statistic" to value, e.g. "processButtonClick.p99Nanos"
+     */
+    Map<String, Long> getLatencies();
+
+    /**
+     * @return every metric as text
+     */
+    String dump();
+
+    /**
+     * <p>
+     * This clears every counter and histogram.
+     * </p>
+     */
+    void reset();
+}
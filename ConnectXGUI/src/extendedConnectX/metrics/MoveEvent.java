@@ -0,0 +1,28 @@
+package cpsc2150.extendedConnectX.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for one button click handled by ConnectXController.
+ *
+ * @version 3.0
+ */
+@Name("cpsc2150.extendedConnectX.Move")
+@Label("Move")
+@Category({"Connect X"})
+@Description("A column button click processed by ConnectXController")
+public class MoveEvent extends Event {
+
+    @Label("Column")
+    public int column;
+
+    @Label("Player")
+    public char player;
+
+    @Label("Board Implementation")
+    public String boardImplementation;
+}
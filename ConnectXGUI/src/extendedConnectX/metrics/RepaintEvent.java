@@ -0,0 +1,21 @@
+package cpsc2150.extendedConnectX.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for one Swing repaint pass on the event dispatch thread.
+ *
+ * @version 3.0
+ */
+@Name("cpsc2150.extendedConnectX.Repaint")
+@Label("Repaint")
+@Category({"Connect X"})
+@StackTrace(false)
+@Description("Painting of the dirty regions of the game windows")
+public class RepaintEvent extends Event {
+}
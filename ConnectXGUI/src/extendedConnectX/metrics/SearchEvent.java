@@ -0,0 +1,36 @@
+package cpsc2150.extendedConnectX.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+
+/**
+ * A Java Flight Recorder event for one move selection by a search engine.
+ *
+ * @version 3.0
+ */
+@Name("cpsc2150.extendedConnectX.Search")
+@Label("Search")
+@Category({"Connect X"})
+@Description("One computer move selection")
+public class SearchEvent extends Event {
+
+    @Label("Engine")
+    public String engine;
+
+    @Label("Depth Reached")
+    public int depth;
+
+    @Label("Nodes")
+    public long nodes;
+
+    @Label("Transposition Table Hit Rate")
+    @Percentage
+    public double ttHitRate;
+
+    @Label("Best Move")
+    public int bestMove;
+}
@@ -0,0 +1,326 @@
+package cpsc2150.extendedConnectX.models;
+
+/**
+ * A class that finds lines of tokens on large boards a whole board at a time. Every player has a
+ * bit plane with one bit per cell, packed into longs, so one long operation looks at 64 cells at
+ * once. Each row is followed by one spare bit that is always 0, so a line that runs off the right
+ * or left edge can not continue on the next row.
+ *
+ * A run of numToWin cells in a direction is found with shifted ANDs: after ANDing a plane with
+ * itself shifted by 1, 2, 4, ... steps in the direction, bit i is set only if the whole run from
+ * cell i is set. That takes about log2(numToWin) passes over the plane per direction, where
+ * checking every cell on its own takes numToWin reads for every cell.
+ *
+ * This is a SWAR (SIMD within a register) scan, so it runs on any JVM without extra modules. The
+ * per-cell checks of IGameBoard remain the scalar way to test the lines through one cell.
+ *
+ * @author Skylar Hubbarth
+ * @version 3.0
+ *
+ * @invariant
+ * stride = numCol + 1
+ * [bit r * stride + c of planes[p] is set iff player p has a token at row r, column c]
+ * [bits r * stride + numCol of every plane are 0]
+ *
+ */
+
+public final class BitLineScanner {
+
+    private final int numRow;
+    private final int numCol;
+    private final int numToWin;
+    private final int stride;
+    private final int words;
+    private final char[] players;
+    private final long[][] planes;
+    private final long[] cells; //every real cell of the board
+    private final int[] shifts; //bit distance of one step, indexed by LineTable direction
+
+    //scratch planes for the scans
+    private final long[] run;
+    private final long[] tmp;
+    private final long[] open;
+
+    /**
+     * Constructor to create an empty scanner.
+     *
+     * @param numRow, the number of rows
+     * @param numCol, the number of columns
+     * @param numToWin, the number to win
+     * @param players, the player tokens
+     *
+     * @pre
+     * numRow > 0 AND numCol > 0 AND 1 <= numToWin
+     *
+     * @post
+     * [no cell holds a token]
+     *
+     */
+    public BitLineScanner(int numRow, int numCol, int numToWin, char[] players) {
+        this.numRow = numRow;
+        this.numCol = numCol;
+        this.numToWin = numToWin;
+        this.players = players.clone();
+        stride = numCol + 1;
+        words = (numRow * stride + 63) >>> 6;
+        planes = new long[players.length][words];
+        cells = new long[words];
+        run = new long[words];
+        tmp = new long[words];
+        open = new long[words];
+        shifts = new int[]{1, stride, stride + 1, stride - 1};
+
+        for(int r = 0; r < numRow; r++) {
+            for(int c = 0; c < numCol; c++) {
+                int bit = r * stride + c;
+                cells[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * Method to create a scanner holding the tokens of a board.
+     *
+     * @param board, the board to copy
+     * @param players, the player tokens
+     *
+     * @return a scanner with the same tokens as board
+     *
+     * @pre
+     * [every token on board is in players]
+     *
+     * @post
+     * [the scanner holds the tokens of board]
+     *
+     */
+    public static BitLineScanner of(IGameBoard board, char[] players) {
+        BitLineScanner scanner = new BitLineScanner(board.getNumRows(), board.getNumColumns(),
+                board.getNumToWin(), players);
+
+        //tokens have no gaps, so each column ends at its first empty cell
+        for(int c = 0; c < board.getNumColumns(); c++) {
+            for(int r = 0; r < board.getNumRows(); r++) {
+                char p = board.whatsAtPos(new BoardPosition(r, c));
+                if(p == ' ') {
+                    break;
+                }
+                scanner.set(p, r, c);
+            }
+        }
+        return scanner;
+    }
+
+    /**
+     * Method to put a token of player p in a cell.
+     *
+     * @param p, player
+     * @param r, row
+     * @param c, column
+     *
+     * @pre
+     * [p is one of the players] AND 0 <= r < numRow AND 0 <= c < numCol
+     *
+     * @post
+     * [the cell holds p's token]
+     *
+     */
+    public void set(char p, int r, int c) {
+        int bit = r * stride + c;
+        for(long[] plane : planes) {
+            plane[bit >>> 6] &= ~(1L << bit);
+        }
+        planes[playerId(p)][bit >>> 6] |= 1L << bit;
+    }
+
+    /**
+     * Method to empty a cell.
+     *
+     * @param r, row
+     * @param c, column
+     *
+     * @pre
+     * 0 <= r < numRow AND 0 <= c < numCol
+     *
+     * @post
+     * [the cell is empty]
+     *
+     */
+    public void clear(int r, int c) {
+        int bit = r * stride + c;
+        for(long[] plane : planes) {
+            plane[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    /**
+     * Method to check whether player p has numToWin in a row anywhere on the board.
+     *
+     * @param p, player
+     * @param dir, a LineTable direction, or -1 for any direction
+     *
+     * @return true if p has a line of numToWin in direction dir
+     *
+     * @pre
+     * [p is one of the players]
+     *
+     * @post
+     * hasLine = [some window in direction dir is full of p]
+     *
+     */
+    public boolean hasLine(char p, int dir) {
+        long[] plane = planes[playerId(p)];
+
+        for(int d = 0; d < shifts.length; d++) {
+            if((dir == -1 || dir == d) && countRuns(plane, shifts[d], numToWin) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to find a player with numToWin in a row.
+     *
+     * @return the token of the first player with a line, or ' ' if nobody has one
+     *
+     * @post
+     * winner = [the first player in players with a full window, or ' ']
+     *
+     */
+    public char winner() {
+        for(char p : players) {
+            if(hasLine(p, -1)) {
+                return p;
+            }
+        }
+        return ' ';
+    }
+
+    /**
+     * Method to count the windows that hold no tokens of any other player than p.
+     *
+     * @param p, player
+     *
+     * @return the number of windows still open for p, empty windows included
+     *
+     * @pre
+     * [p is one of the players]
+     *
+     * @post
+     * countOpenWindows = [number of windows with no token of another player]
+     *
+     */
+    public int countOpenWindows(char p) {
+        int id = playerId(p);
+
+        for(int w = 0; w < words; w++) {
+            long others = 0;
+            for(int q = 0; q < planes.length; q++) {
+                if(q != id) {
+                    others |= planes[q][w];
+                }
+            }
+            open[w] = cells[w] & ~others;
+        }
+
+        int count = 0;
+        for(int shift : shifts) {
+            count += countRuns(open, shift, numToWin);
+        }
+        return count;
+    }
+
+    /**
+     * Method to get the longest line of player p in a direction.
+     *
+     * @param p, player
+     * @param dir, a LineTable direction
+     *
+     * @return the length of p's longest run of tokens in direction dir
+     *
+     * @pre
+     * [p is one of the players] AND 0 <= dir < 4
+     *
+     * @post
+     * longestRun = [largest n such that p has n tokens in a row in direction dir]
+     *
+     */
+    public int longestRun(char p, int dir) {
+        long[] plane = planes[playerId(p)];
+        int shift = shifts[dir];
+        System.arraycopy(plane, 0, run, 0, words);
+
+        //after n rounds bit i is set iff the n + 1 cells from i are all p
+        int length = 0;
+        while(!isEmpty(run)) {
+            length++;
+            shiftAnd(run, plane, run, shift);
+        }
+        return length;
+    }
+
+    public int getNumRows() {
+        return numRow;
+    }
+
+    public int getNumColumns() {
+        return numCol;
+    }
+
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    //the number of cells where a run of length cells of the plane starts
+    private int countRuns(long[] plane, int shift, int length) {
+        System.arraycopy(plane, 0, run, 0, words);
+
+        //run covers "covered" cells, doubled each round while that does not pass length
+        int covered = 1;
+        while(covered * 2 <= length) {
+            shiftAnd(run, run, run, shift * covered);
+            covered *= 2;
+        }
+        if(covered < length) {
+            //runs of covered that start length - covered apart overlap into one of length
+            shiftAnd(run, run, run, shift * (length - covered));
+        }
+
+        int count = 0;
+        for(long word : run) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    //dst = a AND (b shifted down by n bits), dst may be a or b
+    private void shiftAnd(long[] dst, long[] a, long[] b, int n) {
+        int q = n >>> 6;
+        int s = n & 63;
+
+        System.arraycopy(b, 0, tmp, 0, words);
+        for(int w = 0; w < words; w++) {
+            long lo = w + q < words ? tmp[w + q] >>> s : 0;
+            long hi = s != 0 && w + q + 1 < words ? tmp[w + q + 1] << (64 - s) : 0;
+            dst[w] = a[w] & (lo | hi);
+        }
+    }
+
+    private static boolean isEmpty(long[] plane) {
+        for(long word : plane) {
+            if(word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int playerId(char p) {
+        for(int i = 0; i < players.length; i++) {
+            if(players[i] == p) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown player " + p);
+    }
+}
@@ -0,0 +1,152 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.lang.ref.Reference;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * This class compares the board implementations on the board sizes where
+ * {@link cpsc2150.extendedConnectX.controllers.ConnectXGame#createBoard} does not pick GameBoard,
+ * that is, boards of more than BOARD_CUTOFF cells. For each it measures the time to play a game
+ * of random moves, checking for a win after every move as the controllers do, the time to read
+ * a cell, the time to copyInto a scratch board of the same class, and the heap kept by a board
+ * three quarters full.
+ *
+ * @version 3.0
+ */
+public class BoardBenchmark {
+
+    private static final char[] PLAYERS = {'X', 'O', 'Y', 'Z', 'W', 'A', 'B', 'C', 'D', 'E'};
+
+    //about this many cells of boards are held at once when measuring retained heap, enough to
+    //dwarf the few tens of kilobytes the JVM itself allocates between collections
+    private static final int HELD_CELLS = 1000000;
+
+    //copies timed per round
+    private static final int COPIES = 1000;
+
+    private interface Factory {
+        IGameBoard create(int rows, int cols, int numToWin);
+    }
+
+    private static final String[] NAMES = {"GameBoardMem", "StackGameBoard", "PackedGameBoard", "GameBoard"};
+    private static final Factory[] FACTORIES = {GameBoardMem::new, StackGameBoard::new, PackedGameBoard::new,
+            GameBoard::new};
+
+    /**
+     * <p>
+     * This is the benchmark entry point.
+     * </p>
+     *
+     * @param args
+     *      [players=4] [rounds=20]
+     */
+    public static void main(String[] args) {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        //GameBoardMem reads are linear in the tokens played, so larger boards take minutes
+        int[][] sizes = {{10, 11, 4}, {20, 20, 5}, {50, 50, 8}};
+
+        System.out.printf("%d players, %d rounds%n", players, rounds);
+        System.out.printf("%-10s %-16s %12s %12s %12s %10s%n", "size", "board", "game ms", "read ns", "copy ns",
+                "bytes");
+        for(int[] size : sizes) {
+            for(int i = 0; i < FACTORIES.length; i++) {
+                Factory factory = FACTORIES[i];
+                Supplier<IGameBoard> boards = () -> factory.create(size[0], size[1], size[2]);
+
+                //the first pass warms up the JIT
+                playGame(boards.get(), players, 1);
+                long start = System.nanoTime();
+                for(int round = 0; round < rounds; round++) {
+                    playGame(boards.get(), players, round);
+                }
+                long game = (System.nanoTime() - start) / rounds;
+
+                IGameBoard full = fill(boards.get(), players, 2150);
+                readAll(full);
+                start = System.nanoTime();
+                for(int round = 0; round < rounds; round++) {
+                    readAll(full);
+                }
+                long read = (System.nanoTime() - start) / ((long) rounds * size[0] * size[1]);
+
+                IGameBoard scratch = boards.get();
+                int copies = rounds * COPIES;
+                for(int copy = 0; copy < copies; copy++) {
+                    full.copyInto(scratch);
+                }
+                start = System.nanoTime();
+                for(int copy = 0; copy < copies; copy++) {
+                    full.copyInto(scratch);
+                }
+                long copy = (System.nanoTime() - start) / copies;
+
+                System.out.printf("%-10s %-16s %12.3f %12d %12d %10d%n", size[0] + "x" + size[1], NAMES[i],
+                        game / 1e6, read, copy, retainedBytes(boards, players, size[0] * size[1]));
+            }
+        }
+    }
+
+    //plays random moves until someone wins or the board is full
+    private static void playGame(IGameBoard board, int players, long seed) {
+        Random random = new Random(seed);
+        int cols = board.getNumColumns();
+        for(int move = 0; move < board.getNumRows() * cols; move++) {
+            int c = random.nextInt(cols);
+            while(!board.checkIfFree(c)) {
+                c = (c + 1) % cols;
+            }
+            board.placeToken(PLAYERS[move % players], c);
+            if(board.checkForWin(c)) {
+                return;
+            }
+        }
+    }
+
+    private static IGameBoard fill(IGameBoard board, int players, long seed) {
+        Random random = new Random(seed);
+        for(int i = 0; i < board.getNumRows() * board.getNumColumns() * 3 / 4; i++) {
+            int c = random.nextInt(board.getNumColumns());
+            if(board.checkIfFree(c)) {
+                board.placeToken(PLAYERS[i % players], c);
+            }
+        }
+        return board;
+    }
+
+    private static int readAll(IGameBoard board) {
+        int tokens = 0;
+        for(int r = 0; r < board.getNumRows(); r++) {
+            for(int c = 0; c < board.getNumColumns(); c++) {
+                if(board.whatsAtPos(new BoardPosition(r, c)) != ' ') {
+                    tokens++;
+                }
+            }
+        }
+        return tokens;
+    }
+
+    //average heap kept per board, three quarters full, measured as the heap freed by dropping
+    //the boards, which is not thrown off by garbage left over from earlier measurements
+    private static long retainedBytes(Supplier<IGameBoard> boards, int players, int cells) {
+        Runtime runtime = Runtime.getRuntime();
+        int held = Math.max(20, HELD_CELLS / cells);
+        IGameBoard[] kept = new IGameBoard[held];
+        for(int i = 0; i < held; i++) {
+            kept[i] = fill(boards.get(), players, i);
+        }
+        long with = usedAfterGc(runtime);
+        Reference.reachabilityFence(kept);
+        kept = null;
+        long without = usedAfterGc(runtime);
+        return (with - without) / held;
+    }
+
+    private static long usedAfterGc(Runtime runtime) {
+        for(int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
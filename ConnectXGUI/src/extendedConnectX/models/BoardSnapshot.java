@@ -0,0 +1,214 @@
+package cpsc2150.extendedConnectX.models;
+
+/**
+ * Class BoardSnapshot is an immutable copy of a game board at one point in time. It can be read
+ * from any thread while the game it was taken from keeps moving. Snapshots share unchanged
+ * columns with their board, so taking one does not copy the tokens.
+ *
+ * @author Skylar Hubbarth
+ * @version 3.0
+ *
+ * @invariant [the tokens never change]
+ * @invariant MIN_ROW <= numRow <= MAX_ROW
+ * @invariant MIN_COL <= numCol <= MAX_COL
+ * @invariant MIN_COUNT <= numToWin <= MAX_COUNT
+ *
+ * @correspondences [number of columns] = numCol
+ * @correspondences [number of rows] = numRow
+ * @correspondences [number to win] = numToWin
+ *
+ */
+
+public final class BoardSnapshot extends AbsGameBoard implements IGameBoard {
+
+    private final int numRow;
+    private final int numCol;
+    private final int numToWin;
+    private final char[][] columns;
+    private final int[] heights;
+
+    /**
+     * Constructor to create a snapshot from column arrays that will never be written again.
+     *
+     * @param row, the number of rows
+     * @param col, the number of columns
+     * @param numToWin, the number to win
+     * @param columns, the tokens of each column from the bottom up, null for an empty column
+     * @param heights, the number of tokens in each column
+     *
+     * @pre
+     * [columns and heights are not modified after this call]
+     *
+     * @post
+     * [the snapshot holds the given tokens]
+     *
+     */
+    BoardSnapshot(int row, int col, int numToWin, char[][] columns, int[] heights) {
+        numRow = row;
+        numCol = col;
+        this.numToWin = numToWin;
+        this.columns = columns;
+        this.heights = heights;
+    }
+
+    /**
+     * Method to copy any board into a snapshot by reading every cell.
+     *
+     * @param board, the board to copy
+     *
+     * @return a snapshot of board
+     *
+     * @pre
+     * [board is valid]
+     *
+     * @post
+     * [the snapshot holds the same tokens as board]
+     *
+     */
+    static BoardSnapshot copyOf(IGameBoard board) {
+        int numRow = board.getNumRows();
+        int numCol = board.getNumColumns();
+        char[][] columns = new char[numCol][];
+        int[] heights = new int[numCol];
+
+        for(int c = 0; c < numCol; c++) {
+            char[] column = new char[numRow];
+            int h = 0;
+            while(h < numRow && (column[h] = board.whatsAtPos(new BoardPosition(h, c))) != ' ') {
+                h++;
+            }
+            columns[c] = column;
+            heights[c] = h;
+        }
+
+        return new BoardSnapshot(numRow, numCol, board.getNumToWin(), columns, heights);
+    }
+
+    /**
+     * Method that always fails, snapshots cannot be changed.
+     *
+     * @param p, player
+     * @param c, column
+     *
+     * @post
+     * [throws UnsupportedOperationException]
+     *
+     */
+    public void placeToken(char p, int c) {
+        throw new UnsupportedOperationException("Board snapshots are read only");
+    }
+
+    /**
+     * Method that always fails, snapshots cannot be changed.
+     *
+     * @param c, column
+     *
+     * @post
+     * [throws UnsupportedOperationException]
+     *
+     */
+    public void removeToken(int c) {
+        throw new UnsupportedOperationException("Board snapshots are read only");
+    }
+
+    /**
+     * Method to check and return what is in the snapshot at position pos.
+     *
+     * @return returns what is at position pos. If no token is there, it returns a blank space char.
+     *
+     * @param pos, the position [row][col]
+     *
+     * @pre
+     * pos.getRow < getNumRow() && pos.getRow > -1
+     * pos.getCol < getNumColumn() && pos.getCol > -1
+     *
+     * @post
+     * whatsAtPos == [char at position pos] iff [pos is not empty]
+     * [else,] whatsAtPos == ' '
+     *
+     */
+    public char whatsAtPos(BoardPosition pos) {
+        int c = pos.getColumn();
+        return pos.getRow() < heights[c] ? columns[c][pos.getRow()] : ' ';
+    }
+
+    /**
+     * Method to check if the column can accept another token.
+     *
+     * @param c, column chosen
+     *
+     * @return true if column c was not full when the snapshot was taken
+     *
+     * @post
+     * checkIfFree = heights[c] < numRow
+     *
+     */
+    @Override
+    public boolean checkIfFree(int c) {
+        return heights[c] < numRow;
+    }
+
+    /**
+     * Method to return this snapshot, which is already immutable.
+     *
+     * @return this
+     *
+     * @post
+     * snapshot = self
+     *
+     */
+    @Override
+    public BoardSnapshot snapshot() {
+        return this;
+    }
+
+    /**
+     * Method to create a playable board holding the tokens of this snapshot. The board shares
+     * the snapshot's column arrays and copies each one before it first changes it.
+     *
+     * @return a GameBoard holding the same tokens
+     *
+     * @post
+     * copy = [a new GameBoard with the same size, number to win and tokens as self]
+     *
+     */
+    @Override
+    public GameBoard copy() {
+        return GameBoard.sharing(numRow, numCol, numToWin, columns, heights);
+    }
+
+    /**
+     * Method to make target hold the tokens of this snapshot. A GameBoard target gets the tokens
+     * copied column by column into the arrays it already has.
+     *
+     * @param target, the board to overwrite
+     *
+     * @pre
+     * [target has the same number of rows and columns as self]
+     *
+     * @post
+     * [target holds the same tokens as self]
+     *
+     */
+    @Override
+    public void copyInto(IGameBoard target) {
+        if(target instanceof GameBoard && target.getNumRows() == numRow && target.getNumColumns() == numCol) {
+            ((GameBoard) target).copyFrom(columns, heights);
+        }
+        else {
+            super.copyInto(target);
+        }
+    }
+
+    public int getNumRows() {
+        return numRow;
+    }
+
+    public int getNumColumns() {
+        return numCol;
+    }
+
+    public int getNumToWin() {
+        return numToWin;
+    }
+}
@@ -0,0 +1,259 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.Arrays;
+
+/**
+ * A class that stores the tokens of a board column by column, with copy on write columns so that
+ * immutable {@link BoardSnapshot}s can share every column that has not changed since the snapshot
+ * was taken.
+ *
+ * Each column is a char array holding the tokens from the bottom up, allocated on the first token
+ * and grown as the column fills, so memory is proportional to the tokens played. A column array
+ * is only written while it belongs to the current generation; taking a snapshot starts a new
+ * generation, and the next write to each column copies it first.
+ *
+ * This class is not thread safe. Snapshots are.
+ *
+ * @author Skylar Hubbarth
+ * @version 3.0
+ *
+ * @invariant
+ * 0 <= heights[c] <= numRow
+ * [columns[c][0 .. heights[c] - 1] are the tokens of column c from the bottom up]
+ * [columns[c] is never written after being handed to a snapshot]
+ *
+ */
+
+final class ColumnStore {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final int numRow;
+    private final int numCol;
+    private final int numToWin;
+    private final char[][] columns;
+    private final int[] heights;
+    private final int[] columnGeneration;
+    private int generation = 1;
+    private BoardSnapshot last;
+
+    /**
+     * Constructor to create an empty store.
+     *
+     * @param row, the number of rows
+     * @param col, the number of columns
+     * @param numToWin, the number to win
+     *
+     * @pre
+     * MIN_ROW <= row <= MAX_ROW
+     * MIN_COL <= col <= MAX_COL
+     *
+     * @post
+     * [every column is empty]
+     *
+     */
+    ColumnStore(int row, int col, int numToWin) {
+        numRow = row;
+        numCol = col;
+        this.numToWin = numToWin;
+        columns = new char[col][];
+        heights = new int[col];
+        columnGeneration = new int[col];
+    }
+
+    /**
+     * Constructor to create a store that starts out sharing column arrays it must never write.
+     *
+     * @param row, the number of rows
+     * @param col, the number of columns
+     * @param numToWin, the number to win
+     * @param columns, the tokens of each column from the bottom up, null for an empty column
+     * @param heights, the number of tokens in each column
+     *
+     * @post
+     * [the store holds the given tokens]
+     * [each column is copied before it is first written]
+     *
+     */
+    ColumnStore(int row, int col, int numToWin, char[][] columns, int[] heights) {
+        this(row, col, numToWin);
+        System.arraycopy(columns, 0, this.columns, 0, col);
+        System.arraycopy(heights, 0, this.heights, 0, col);
+    }
+
+    /**
+     * Method to get the token at a position.
+     *
+     * @param r, the row
+     * @param c, the column
+     *
+     * @return the token at (r, c), or a blank space if there is none
+     *
+     * @pre
+     * 0 <= r < numRow
+     * 0 <= c < numCol
+     *
+     * @post
+     * get = [token at (r, c)] iff r < heights[c]
+     * [else,] get = ' '
+     *
+     */
+    char get(int r, int c) {
+        return r < heights[c] ? columns[c][r] : ' ';
+    }
+
+    /**
+     * Method to drop token p onto column c.
+     *
+     * @param p, the player
+     * @param c, the column
+     *
+     * @pre
+     * heights[c] < numRow
+     *
+     * @post
+     * heights[c] = #heights[c] + 1
+     * get(#heights[c], c) = p
+     *
+     */
+    void push(char p, int c) {
+        char[] column = columns[c];
+        int height = heights[c];
+
+        if(column == null) {
+            column = new char[Math.min(INITIAL_CAPACITY, numRow)];
+        }
+        else if(height == column.length) {
+            column = Arrays.copyOf(column, Math.min(numRow, column.length * 2));
+        }
+        else if(columnGeneration[c] != generation) {
+            //the array is shared with a snapshot
+            column = column.clone();
+        }
+
+        column[height] = p;
+        columns[c] = column;
+        columnGeneration[c] = generation;
+        heights[c] = height + 1;
+        last = null;
+    }
+
+    /**
+     * Method to remove the top token of column c.
+     *
+     * @param c, the column
+     *
+     * @pre
+     * heights[c] > 0
+     *
+     * @post
+     * heights[c] = #heights[c] - 1
+     *
+     */
+    void pop(int c) {
+        //the array itself is left alone, so a snapshot sharing it is unaffected
+        heights[c]--;
+        last = null;
+    }
+
+    /**
+     * Method to get the number of tokens in column c.
+     *
+     * @param c, the column
+     *
+     * @return the height of column c
+     *
+     * @post
+     * height = heights[c]
+     *
+     */
+    int height(int c) {
+        return heights[c];
+    }
+
+    /**
+     * Method to get an immutable snapshot of the store. Only the array of column references and
+     * the heights are copied; the columns are shared until they are next written.
+     *
+     * @return a snapshot of the current tokens
+     *
+     * @post
+     * [snapshot holds the current tokens and never changes]
+     * [if nothing changed since the last snapshot, the same snapshot is returned]
+     *
+     */
+    BoardSnapshot snapshot() {
+        if(last == null) {
+            last = new BoardSnapshot(numRow, numCol, numToWin, columns.clone(), heights.clone());
+            generation++;
+        }
+        return last;
+    }
+
+    /**
+     * Method to create a store holding the same tokens. Like a snapshot, the copy shares every
+     * column array, and each store copies a column before it next writes it.
+     *
+     * @return a copy of this store
+     *
+     * @post
+     * [copy holds the current tokens and changes independently of self]
+     *
+     */
+    ColumnStore copy() {
+        generation++;
+        return new ColumnStore(numRow, numCol, numToWin, columns, heights);
+    }
+
+    /**
+     * Method to overwrite this store with given tokens, copying them into the column arrays this
+     * store already owns whenever they are big enough.
+     *
+     * @param from, the tokens of each column from the bottom up, null for an empty column
+     * @param fromHeights, the number of tokens in each column
+     *
+     * @pre
+     * from.length = fromHeights.length = numCol
+     *
+     * @post
+     * [the store holds the given tokens]
+     * [from and fromHeights are not changed or kept]
+     *
+     */
+    void copyFrom(char[][] from, int[] fromHeights) {
+        for(int c = 0; c < numCol; c++) {
+            int height = fromHeights[c];
+            if(height == 0) {
+                continue;
+            }
+
+            char[] column = columns[c];
+            if(column == null || column.length < height || columnGeneration[c] != generation) {
+                column = new char[Math.min(numRow, Math.max(height, INITIAL_CAPACITY))];
+                columns[c] = column;
+                columnGeneration[c] = generation;
+            }
+            System.arraycopy(from[c], 0, column, 0, height);
+        }
+
+        System.arraycopy(fromHeights, 0, heights, 0, numCol);
+        last = null;
+    }
+
+    /**
+     * Method to overwrite target with the tokens of this store.
+     *
+     * @param target, the store to overwrite
+     *
+     * @pre
+     * [target has the same number of rows and columns as self]
+     *
+     * @post
+     * [target holds the same tokens as self]
+     * self = #self
+     *
+     */
+    void copyInto(ColumnStore target) {
+        target.copyFrom(columns, heights);
+    }
+}
@@ -1,5 +1,7 @@
 package cpsc2150.extendedConnectX.models;
 
+import cpsc2150.extendedConnectX.metrics.Metrics;
+
 /**
  * Class GameBoard that implements the interface in IGameBoard and extends the abstract class AbsGameBoard
  * and contains functions that would make for a faster game mode.
@@ -29,7 +31,7 @@ public class GameBoard extends AbsGameBoard implements IGameBoard {
     private final int numCol; //column
     private final int numRow; //row
     private final int numToWin;
-    private char Board[][];
+    private ColumnStore Board; //tokens of each column, shared with snapshots until changed
 
     /**
      * Constructor to initiate the game board.
@@ -49,13 +51,15 @@ public class GameBoard extends AbsGameBoard implements IGameBoard {
         numRow = row;
         numCol = col;
         this.numToWin = numToWin;
-        Board = new char[row][col];
+        Board = new ColumnStore(row, col, numToWin);
+    }
 
-        for(int x = 0; x < numRow; x++) {
-            for(int y = 0; y < numCol; y++) {
-                Board[x][y] = ' ';
-            }
-        }
+    //creates a board around existing tokens
+    private GameBoard(int row, int col, int numToWin, ColumnStore board) {
+        numRow = row;
+        numCol = col;
+        this.numToWin = numToWin;
+        Board = board;
     }
 
     /**
@@ -77,13 +81,129 @@ public class GameBoard extends AbsGameBoard implements IGameBoard {
      *
      */
     public void placeToken(char p, int c) {
-        //loop to the lowest available row
-        for(int x = 0; x < numRow; x++) {
-            if(Board[x][c] == ' ') {
-                Board[x][c] = p;
-                return;
-            }
+        if(Metrics.ENABLED) {
+            Metrics.count(Metrics.PLACE_TOKEN, this);
         }
+
+        //the store drops the token onto the lowest available row
+        Board.push(p, c);
+    }
+
+    /**
+     * Method to remove the top token from column c. This undoes the most recent placeToken
+     * in that column.
+     *
+     * @param c, column
+     *
+     * @pre
+     * 0 <= c < getNumColumns()
+     * [column c contains at least one token]
+     *
+     * @post
+     * [the highest token in column c is replaced with a blank space]
+     * c = #c
+     *
+     */
+    public void removeToken(int c) {
+        if(Board.height(c) > 0) {
+            Board.pop(c);
+        }
+    }
+
+    /**
+     * Method to get an immutable snapshot of the board that is safe to read from any thread.
+     * Columns that have not changed since the last snapshot are shared, not copied.
+     *
+     * @return a snapshot of the current board
+     *
+     * @pre
+     * [called from the thread that changes the board]
+     *
+     * @post
+     * snapshot = [a read only board holding the same tokens as self]
+     * self = #self
+     *
+     */
+    @Override
+    public BoardSnapshot snapshot() {
+        return Board.snapshot();
+    }
+
+    /**
+     * Method to create a new board holding the same tokens as this one. The column arrays are
+     * shared with the copy until either board next changes them.
+     *
+     * @return a copy of this board
+     *
+     * @post
+     * copy = [a new GameBoard with the same size, number to win and tokens as self]
+     * self = #self
+     *
+     */
+    @Override
+    public GameBoard copy() {
+        return new GameBoard(numRow, numCol, numToWin, Board.copy());
+    }
+
+    /**
+     * Method to make target hold the same tokens as this board. A GameBoard target gets the
+     * tokens copied column by column into the arrays it already has.
+     *
+     * @param target, the board to overwrite
+     *
+     * @pre
+     * [target has the same number of rows and columns as self]
+     * target != self
+     *
+     * @post
+     * [target holds the same tokens as self]
+     * self = #self
+     *
+     */
+    @Override
+    public void copyInto(IGameBoard target) {
+        if(target instanceof GameBoard && target.getNumRows() == numRow && target.getNumColumns() == numCol) {
+            Board.copyInto(((GameBoard) target).Board);
+        }
+        else {
+            super.copyInto(target);
+        }
+    }
+
+    /**
+     * Method to overwrite this board with the tokens of a snapshot.
+     *
+     * @param columns, the tokens of each column from the bottom up, null for an empty column
+     * @param heights, the number of tokens in each column
+     *
+     * @pre
+     * columns.length = heights.length = getNumColumns()
+     *
+     * @post
+     * [self holds the given tokens]
+     *
+     */
+    void copyFrom(char[][] columns, int[] heights) {
+        Board.copyFrom(columns, heights);
+    }
+
+    /**
+     * Method to create a board that starts out sharing the column arrays of a snapshot.
+     *
+     * @param row, the row
+     * @param col, the column
+     * @param numToWin, the number to win
+     * @param columns, the tokens of each column from the bottom up, null for an empty column
+     * @param heights, the number of tokens in each column
+     *
+     * @return a board holding the given tokens
+     *
+     * @post
+     * [the board holds the given tokens, and copies each column before it first writes it]
+     *
+     */
+    static GameBoard sharing(int row, int col, int numToWin, char[][] columns, int[] heights) {
+        return new GameBoard(row, col, numToWin, new ColumnStore(row, col, numToWin, columns, heights));
     }
 
     /**
@@ -106,7 +226,10 @@ public class GameBoard extends AbsGameBoard implements IGameBoard {
      *
      */
     public char whatsAtPos(BoardPosition pos) {
-        return Board[pos.getRow()][pos.getColumn()];
+        if(Metrics.ENABLED) {
+            Metrics.count(Metrics.WHATS_AT_POS, this);
+        }
+        return Board.get(pos.getRow(), pos.getColumn());
     }
 
     /**
@@ -1,5 +1,7 @@
 package cpsc2150.extendedConnectX.models;
 
+import cpsc2150.extendedConnectX.metrics.Metrics;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -74,6 +76,10 @@ public class GameBoardMem extends AbsGameBoard implements IGameBoard {
      *
      */
     public void placeToken(char p, int c) {
+        if(Metrics.ENABLED) {
+            Metrics.count(Metrics.PLACE_TOKEN, this);
+        }
+
         Board.putIfAbsent(p, new ArrayList<>());
 
         BoardPosition tokenPlace = new BoardPosition(0, c);
@@ -85,6 +91,120 @@ public class GameBoardMem extends AbsGameBoard implements IGameBoard {
         Board.get(p).add(tokenPlace);
     }
 
+    /**
+     * Method to remove the top token from column c. This undoes the most recent placeToken
+     * in that column.
+     *
+     * @param c, column
+     *
+     * @pre
+     * 0 <= c < getNumColumns()
+     * [column c contains at least one token]
+     *
+     * @post
+     * [the highest token in column c is removed from its player's list]
+     * c = #c
+     *
+     */
+    public void removeToken(int c) {
+        //loop down from the top to the highest filled row
+        for(int x = numRow - 1; x >= 0; x--) {
+            BoardPosition tokenPlace = new BoardPosition(x, c);
+
+            for(List<BoardPosition> val : Board.values()) {
+                if(val.remove(tokenPlace)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to get an immutable snapshot of the board that is safe to read from any thread.
+     * This board keeps no columns to share, so the snapshot is built from the token lists, in
+     * time proportional to the number of tokens rather than the number of cells.
+     *
+     * @return a snapshot of the current board
+     *
+     * @pre
+     * [called from the thread that changes the board]
+     *
+     * @post
+     * snapshot = [a read only board holding the same tokens as self]
+     * self = #self
+     *
+     */
+    @Override
+    public BoardSnapshot snapshot() {
+        char[][] columns = new char[numCol][];
+        int[] heights = new int[numCol];
+
+        for(Map.Entry<Character,List<BoardPosition>> val : Board.entrySet()) {
+            char p = val.getKey();
+            for(BoardPosition pos : val.getValue()) {
+                int c = pos.getColumn();
+                if(columns[c] == null) {
+                    columns[c] = new char[numRow];
+                }
+                columns[c][pos.getRow()] = p;
+                heights[c] = Math.max(heights[c], pos.getRow() + 1);
+            }
+        }
+
+        return new BoardSnapshot(numRow, numCol, numToWin, columns, heights);
+    }
+
+    /**
+     * Method to create a new board holding the same tokens as this one. BoardPositions are
+     * immutable, so the copy's lists hold the same position objects.
+     *
+     * @return a copy of this board
+     *
+     * @post
+     * copy = [a new GameBoardMem with the same size, number to win and tokens as self]
+     * self = #self
+     *
+     */
+    @Override
+    public GameBoardMem copy() {
+        GameBoardMem copy = new GameBoardMem(numRow, numCol, numToWin);
+        for(Map.Entry<Character,List<BoardPosition>> val : Board.entrySet()) {
+            copy.Board.put(val.getKey(), new ArrayList<>(val.getValue()));
+        }
+        return copy;
+    }
+
+    /**
+     * Method to make target hold the same tokens as this board. A GameBoardMem target keeps its
+     * lists and has the tokens copied into them.
+     *
+     * @param target, the board to overwrite
+     *
+     * @pre
+     * [target has the same number of rows and columns as self]
+     * target != self
+     *
+     * @post
+     * [target holds the same tokens as self]
+     * self = #self
+     *
+     */
+    @Override
+    public void copyInto(IGameBoard target) {
+        if(!(target instanceof GameBoardMem) || target.getNumRows() != numRow || target.getNumColumns() != numCol) {
+            super.copyInto(target);
+            return;
+        }
+
+        GameBoardMem other = (GameBoardMem) target;
+        for(List<BoardPosition> val : other.Board.values()) {
+            val.clear();
+        }
+        for(Map.Entry<Character,List<BoardPosition>> val : Board.entrySet()) {
+            other.Board.computeIfAbsent(val.getKey(), p -> new ArrayList<>()).addAll(val.getValue());
+        }
+    }
+
     /**
      * Method to check and return what is in the game board at position pos.
      *
@@ -105,6 +225,10 @@ public class GameBoardMem extends AbsGameBoard implements IGameBoard {
      *
      */
     public char whatsAtPos(BoardPosition pos) {
+        if(Metrics.ENABLED) {
+            Metrics.count(Metrics.WHATS_AT_POS, this);
+        }
+
         char empty = ' ';
 
         for(Map.Entry<Character,List<BoardPosition>> val : Board.entrySet()) {
@@ -1,5 +1,8 @@
 package cpsc2150.extendedConnectX.models;
 
+import cpsc2150.extendedConnectX.metrics.GameCheckEvent;
+import cpsc2150.extendedConnectX.metrics.Metrics;
+
 /**
  * An interface for GameBoard that contains default methods and method definitions that
  * will be implemented in GameBoard
@@ -56,6 +59,23 @@ public interface IGameBoard {
      */
     public void placeToken(char p, int c);
 
+    /**
+     * Method to remove the top token from column c. This undoes the most recent placeToken
+     * in that column.
+     *
+     * @param c, column
+     *
+     * @pre
+     * 0 <= c < getNumColumns()
+     * [column c contains at least one token]
+     *
+     * @post
+     * [the highest token in column c is replaced with a blank space]
+     * c = #c
+     *
+     */
+    public void removeToken(int c);
+
     /**
      * Method to check and return what is in the game board at position pos.
      *
@@ -117,8 +137,201 @@ public interface IGameBoard {
      */
     public int getNumToWin();
 
+    /**
+     * Method to create a new board holding the same tokens as this one, which can be played on
+     * without changing this board.
+     *
+     * @return a copy of this board
+     *
+     * @post
+     * copy = [a new board with the same size, number to win and tokens as self]
+     * self = #self
+     *
+     */
+    public IGameBoard copy();
+
 
     //default/secondary methods
+    /**
+     * Method to get an immutable snapshot of the board that is safe to read from any thread.
+     * Implementations that cannot share storage with a snapshot copy every cell.
+     *
+     * @return a snapshot of the current board
+     *
+     * @pre
+     * [called from the thread that changes the board]
+     *
+     * @post
+     * snapshot = [a read only board holding the same tokens as self]
+     * self = #self
+     *
+     */
+    public default BoardSnapshot snapshot() {
+        return BoardSnapshot.copyOf(this);
+    }
+
+    /**
+     * Method to make target hold the same tokens as this board, reusing target's storage. This
+     * lets a search or simulation recycle a few scratch boards instead of allocating one per
+     * copy. Implementations copy their storage in bulk when target is of the same class; this
+     * default empties target and replays every token.
+     *
+     * @param target, the board to overwrite
+     *
+     * @pre
+     * [target has the same number of rows and columns as self]
+     * target != self
+     *
+     * @post
+     * [target holds the same tokens as self]
+     * self = #self
+     *
+     */
+    public default void copyInto(IGameBoard target) {
+        if(target.getNumRows() != getNumRows() || target.getNumColumns() != getNumColumns()) {
+            throw new IllegalArgumentException("Cannot copy a " + getNumRows() + "x" + getNumColumns()
+                    + " board into a " + target.getNumRows() + "x" + target.getNumColumns() + " board");
+        }
+
+        for(int c = 0; c < getNumColumns(); c++) {
+            int r = 0;
+            while(r < target.getNumRows() && target.whatsAtPos(new BoardPosition(r, c)) != ' ') {
+                r++;
+            }
+            for(; r > 0; r--) {
+                target.removeToken(c);
+            }
+
+            for(r = 0; r < getNumRows(); r++) {
+                char p = whatsAtPos(new BoardPosition(r, c));
+                if(p == ' ') {
+                    break;
+                }
+                target.placeToken(p, c);
+            }
+        }
+    }
+
+    /**
+     * Method to play a sequence of moves, with players taking turns in the given order, and
+     * find the first move that won or tied the game. Every move is checked before any token is
+     * placed, and then the win check looks only at the windows through the new tokens, with one
+     * read of each board cell at most, instead of a checkForWin and checkTie after every move.
+     * Moves after the one that ended the game are neither checked nor placed.
+     *
+     * @param players, the players in turn order, the first one making columns[offset]
+     * @param columns, the columns played
+     * @param offset, the index of the first move in columns
+     * @param length, the number of moves
+     *
+     * @return the index, counted from offset, of the move that won or filled the board, or -1
+     * if the game did not end
+     *
+     * @pre
+     * MIN_PLAYERS <= players.length <= MAX_PLAYERS
+     * 0 <= offset <= offset + length <= columns.length
+     * [no player has won before the first move]
+     *
+     * @post
+     * [if every move up to the end of the game is in a column that still has room when it is
+     * played, the moves up to and including the one returned, or all of them if -1 is returned,
+     * are placed]
+     * [otherwise throws IllegalArgumentException and the board is unchanged]
+     *
+     */
+    public default int placeTokens(char[] players, int[] columns, int offset, int length) {
+        int numRow = getNumRows();
+        int numCol = getNumColumns();
+
+        //the height of every column touched, read from the board the first time it is used
+        int[] heights = new int[numCol];
+        boolean[] known = new boolean[numCol];
+        int[] cells = new int[length];
+
+        //an invalid move only matters if the game has not ended before it
+        String error = null;
+        int valid = 0;
+        for(; valid < length; valid++) {
+            int c = columns[offset + valid];
+            if(c < 0 || c >= numCol) {
+                error = "Move " + valid + ": column must be between 0 and " + (numCol - 1) + ", got " + c;
+                break;
+            }
+            if(!known[c]) {
+                while(heights[c] < numRow && whatsAtPos(new BoardPosition(heights[c], c)) != ' ') {
+                    heights[c]++;
+                }
+                known[c] = true;
+            }
+            if(heights[c] == numRow) {
+                error = "Move " + valid + ": column " + c + " is full";
+                break;
+            }
+            cells[valid] = heights[c]++ * numCol + c;
+        }
+
+        //ply[cell] is 1 + the move that fills cell, or 0 if it is not filled by these moves;
+        //tokens[cell] caches the board's token for the other cells, 0 until read
+        int[] ply = new int[numRow * numCol];
+        char[] tokens = new char[numRow * numCol];
+        for(int i = 0; i < valid; i++) {
+            ply[cells[i]] = i + 1;
+        }
+
+        LineTable table = LineTable.get(numRow, numCol, getNumToWin());
+        int end = -1;
+        for(int i = 0; i < valid && end == -1; i++) {
+            int cell = cells[i];
+            char p = players[i % players.length];
+
+            for(int j = table.cellStart(cell); j < table.cellEnd(cell) && end == -1; j++) {
+                int w = table.cellWindow(j);
+                boolean full = true;
+
+                for(int k = 0; k < getNumToWin() && full; k++) {
+                    int other = table.windowCell(w, k);
+                    char token;
+                    if(ply[other] != 0) {
+                        //a later move has not been played yet at move i
+                        token = ply[other] <= i + 1 ? players[(ply[other] - 1) % players.length] : ' ';
+                    }
+                    else {
+                        if(tokens[other] == 0) {
+                            tokens[other] = whatsAtPos(new BoardPosition(other / numCol, other % numCol));
+                        }
+                        token = tokens[other];
+                    }
+                    full = token == p;
+                }
+
+                if(full) {
+                    end = i;
+                }
+            }
+        }
+
+        //without a win, the game only ends if the last valid move filled the board
+        if(end == -1 && valid > 0) {
+            boolean tie = true;
+            for(int c = 0; c < numCol && tie; c++) {
+                tie = known[c] ? heights[c] == numRow : !checkIfFree(c);
+            }
+            if(tie) {
+                end = valid - 1;
+            }
+        }
+        if(end == -1 && error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        int placed = end == -1 ? length : end + 1;
+        for(int i = 0; i < placed; i++) {
+            placeToken(players[i % players.length], columns[offset + i]);
+        }
+
+        return end;
+    }
+
     /**
      * Method to check if the column can accept another token.
      *
@@ -157,18 +370,38 @@ public interface IGameBoard {
      * c = #c
      */
     public default boolean checkForWin(int c) {
+        if(Metrics.ENABLED) {
+            Metrics.count(Metrics.CHECK_FOR_WIN, this);
+        }
 
-        for(int x = 0; x < getNumRows(); x++) {
+        GameCheckEvent event = Metrics.EVENTS ? new GameCheckEvent() : null;
+        if(event != null) {
+            event.begin();
+        }
+
+        LineTable table = LineTable.forBoard(this);
+        boolean win = false;
+
+        for(int x = 0; x < getNumRows() && !win; x++) {
             BoardPosition pos = new BoardPosition(x, c);
+            char p = whatsAtPos(pos);
 
-            if(whatsAtPos(pos) != ' ') {
-                if(checkHorizWin(pos, whatsAtPos(pos)) || checkVertWin(pos, whatsAtPos(pos)) ||
-                        checkDiagWin(pos, whatsAtPos(pos))) {
-                    return true;
-                }
+            //tokens have no gaps, so the rest of the column is empty
+            if(p == ' ') {
+                break;
             }
+
+            win = table.hasWinThrough(this, pos, p, -1);
+        }
+
+        if(event != null && event.shouldCommit()) {
+            event.check = "win";
+            event.column = c;
+            event.result = win;
+            event.boardImplementation = getClass().getSimpleName();
+            event.commit();
         }
-        return false;
+        return win;
 
     }
 
@@ -215,20 +448,34 @@ public interface IGameBoard {
      *
      */
     public default boolean checkTie() {
+        GameCheckEvent event = Metrics.EVENTS ? new GameCheckEvent() : null;
+        if(event != null) {
+            event.begin();
+        }
+
         BoardPosition temp;
+        boolean tie = true;
 
-        for(int y = 0; y < getNumColumns(); y++) {
-            for(int x = 0; x < getNumRows(); x++) {
+        for(int y = 0; y < getNumColumns() && tie; y++) {
+            for(int x = 0; x < getNumRows() && tie; x++) {
                 temp = new BoardPosition(x, y);
 
                 //check to see if there are any empty spaces in the board
                 if(whatsAtPos(temp) == ' ') {
-                    return false;
+                    tie = false;
                 }
             }
         }
+
+        if(event != null && event.shouldCommit()) {
+            event.check = "tie";
+            event.column = -1;
+            event.result = tie;
+            event.boardImplementation = getClass().getSimpleName();
+            event.commit();
+        }
         //if no empty spaces are found, board is full and game is tied
-        return true;
+        return tie;
     }
 
     /**
@@ -259,31 +506,7 @@ public interface IGameBoard {
      *
      */
     public default boolean checkHorizWin(BoardPosition pos, char p) {
-        boolean win = true;
-        int width = pos.getRow();
-        int height = pos.getColumn();
-
-        int right = Math.min(getNumColumns() - 1, height + (getNumToWin() - 1));
-        int left = Math.max(0, height - (getNumToWin() - 1));
-
-        for(int x = left; x + getNumToWin() - 1 <= right; x++) {
-            for(int y = 0; y < getNumToWin(); y++) {
-                BoardPosition check = new BoardPosition(width, x + y);
-
-                if (whatsAtPos(check) != p) {
-                    win = false;
-                }
-            }
-
-            if(win) {
-                return true;
-            }
-
-            win = true;
-
-        }
-
-        return false;
+        return LineTable.forBoard(this).hasWinThrough(this, pos, p, LineTable.HORIZONTAL);
     }
 
     /**
@@ -314,27 +537,7 @@ public interface IGameBoard {
      *
      */
     public default boolean checkVertWin(BoardPosition pos, char p) {
-        boolean win = true;
-        int width = pos.getRow();
-        int height = pos.getColumn();
-
-        if(width - (getNumToWin() - 1) > -1) {
-            for(int x = 0; x < getNumToWin(); x++) {
-                BoardPosition check = new BoardPosition(width - x, height);
-
-                if(whatsAtPos(check) != p) {
-                    win = false;
-                }
-            }
-            if(win) {
-                return true;
-            }
-
-            win = true;
-        }
-
-        return false;
-
+        return LineTable.forBoard(this).hasWinThrough(this, pos, p, LineTable.VERTICAL);
     }
 
     /**
@@ -365,74 +568,9 @@ public interface IGameBoard {
      *
      */
     public default boolean checkDiagWin(BoardPosition pos, char p) {
-        boolean win = true;
-        int width = pos.getRow();
-        int height = pos.getColumn();
-        int count = 1;
-
-        //right to left from top
-        for (int i = width + 1, j = height + 1; i < getNumRows() && j < getNumColumns(); i++, j++) {
-            BoardPosition checkPos = new BoardPosition(i, j);
-            char check = whatsAtPos(checkPos);
-
-            if (check == p) {
-                count++;
-                if (count == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                break;
-            }
-        }
-
-        //left to right from top
-        for (int i = width - 1, j = height - 1; i >= 0 && j >= 0; i--, j--) {
-            BoardPosition checkPos = new BoardPosition(i, j);
-            char check = whatsAtPos(checkPos);
-
-            if (check == p) {
-                count++;
-                if (count == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                break;
-            }
-        }
-
-        count = 1;
-
-        //left to right from top
-        for (int i = width + 1, j = height - 1; i < getNumRows() && j >= 0; i++, j--) {
-            BoardPosition checkPos = new BoardPosition(i, j);
-            char check = whatsAtPos(checkPos);
-
-            if (check == p) {
-                count++;
-                if (count == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                break;
-            }
-        }
-
-        //left to right from bottom
-        for (int i = width - 1, j = height + 1; i >= 0 && j < getNumColumns(); i--, j++) {
-            BoardPosition checkPos = new BoardPosition(i, j);
-            char check = whatsAtPos(checkPos);
-
-            if (check == p) {
-                count++;
-                if (count == getNumToWin()) {
-                    return true;
-                }
-            } else {
-                break;
-            }
-        }
-
-        return false;
+        LineTable table = LineTable.forBoard(this);
+        return table.hasWinThrough(this, pos, p, LineTable.DIAGONAL) ||
+                table.hasWinThrough(this, pos, p, LineTable.ANTI_DIAGONAL);
     }
 }
 
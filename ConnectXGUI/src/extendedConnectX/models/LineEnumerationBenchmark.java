@@ -0,0 +1,61 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class times {@link LineEnumerator} on one large, half full board with fork/join pools of
+ * 1, 2, 4, ... threads up to the number of cores, and prints the speedup over one thread.
+ *
+ * @version 3.0
+ */
+public class LineEnumerationBenchmark {
+
+    private static final char[] PLAYERS = {'X', 'O'};
+
+    /**
+     * <p>
+     * This is the benchmark entry point.
+     * </p>
+     *
+     * @param args
+     *      [rows=4000] [cols=4000] [numToWin=6] [rounds=3]
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 4000;
+        int numToWin = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        //every column filled to a random height, so the top half of the board is ragged
+        IGameBoard board = new GameBoard(rows, cols, numToWin);
+        Random random = new Random(2150);
+        for(int c = 0; c < cols; c++) {
+            int height = random.nextInt(rows + 1);
+            for(int r = 0; r < height; r++) {
+                board.placeToken(PLAYERS[random.nextInt(PLAYERS.length)], c);
+            }
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%dx%d board, %d to win, %d cores%n", rows, cols, numToWin, cores);
+        long single = 0;
+        for(int threads = 1; threads <= cores; threads = threads < cores ? Math.min(threads * 2, cores) : threads + 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            LineList lines = LineEnumerator.findLines(board, pool);
+
+            long start = System.nanoTime();
+            for(int i = 0; i < rounds; i++) {
+                lines = LineEnumerator.findLines(board, pool);
+            }
+            long nanos = (System.nanoTime() - start) / rounds;
+            pool.shutdown();
+
+            if(threads == 1) {
+                single = nanos;
+            }
+            System.out.printf("%3d threads %10.1f ms %6.2fx  %d lines%n", threads, nanos / 1e6,
+                    (double) single / nanos, lines.size());
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A class that finds every line of numToWin or more tokens of one player anywhere on a board,
+ * where checkForWin only looks at the lines through the last token played.
+ *
+ * The board is read once per line family: all rows, all columns, and both families of diagonals.
+ * Each family is split into ranges of lines that are scanned as fork/join tasks, so the scan is
+ * spread over every core of the pool. Column heights are found first, also in parallel, so that
+ * empty cells are never read from the board.
+ *
+ * Only maximal lines are reported: a run of 7 tokens with numToWin = 4 is one line of length 7.
+ *
+ * @author Skylar Hubbarth
+ * @version 3.0
+ *
+ */
+
+public final class LineEnumerator {
+
+    //about how many cells one task scans before it stops splitting
+    private static final int TASK_CELLS = 1 << 16;
+
+    //row and column steps, indexed by direction
+    private static final int[] ROW_STEP = {0, 1, 1, 1};
+    private static final int[] COL_STEP = {1, 0, 1, -1};
+
+    private LineEnumerator() {
+    }
+
+    /**
+     * Method to find every line on a board using the common fork/join pool.
+     *
+     * @param board, the board to scan
+     *
+     * @return every maximal line of getNumToWin() or more tokens of one player
+     *
+     * @post
+     * findLines = [every maximal run of one player's tokens of at least getNumToWin() cells in
+     *             any direction, rows first, then columns, diagonals and anti-diagonals]
+     *
+     */
+    public static LineList findLines(IGameBoard board) {
+        return findLines(board, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Method to find every line on a board.
+     *
+     * @param board, the board to scan
+     * @param pool, the pool to scan with
+     *
+     * @return every maximal line of getNumToWin() or more tokens of one player
+     *
+     * @pre
+     * [board is not changed during the scan]
+     *
+     * @post
+     * same as findLines(board)
+     *
+     */
+    public static LineList findLines(IGameBoard board, ForkJoinPool pool) {
+        int numRow = board.getNumRows();
+        int numCol = board.getNumColumns();
+        int[] heights = new int[numCol];
+        pool.invoke(new HeightTask(board, heights, 0, numCol));
+
+        LineList lines = new LineList();
+        for(int dir = 0; dir < ROW_STEP.length; dir++) {
+            int numLines = dir == LineTable.HORIZONTAL ? numRow : dir == LineTable.VERTICAL ? numCol
+                    : numRow + numCol - 1;
+            lines.addAll(pool.invoke(new ScanTask(board, heights, dir, 0, numLines)));
+        }
+        return lines;
+    }
+
+    //fills heights[lo..hi) with the number of tokens in each column; tasks are never serialized
+    @SuppressWarnings("serial")
+    private static final class HeightTask extends RecursiveAction {
+        private final IGameBoard board;
+        private final int[] heights;
+        private final int lo;
+        private final int hi;
+
+        HeightTask(IGameBoard board, int[] heights, int lo, int hi) {
+            this.board = board;
+            this.heights = heights;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            int numRow = board.getNumRows();
+            if((long) (hi - lo) * numRow > TASK_CELLS && hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new HeightTask(board, heights, lo, mid), new HeightTask(board, heights, mid, hi));
+                return;
+            }
+
+            for(int c = lo; c < hi; c++) {
+                int r = 0;
+                while(r < numRow && board.whatsAtPos(new BoardPosition(r, c)) != ' ') {
+                    r++;
+                }
+                heights[c] = r;
+            }
+        }
+    }
+
+    //finds the lines in lines [lo, hi) of one direction
+    @SuppressWarnings("serial")
+    private static final class ScanTask extends RecursiveTask<LineList> {
+        private final IGameBoard board;
+        private final int[] heights;
+        private final int dir;
+        private final int lo;
+        private final int hi;
+
+        ScanTask(IGameBoard board, int[] heights, int dir, int lo, int hi) {
+            this.board = board;
+            this.heights = heights;
+            this.dir = dir;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected LineList compute() {
+            int longest = Math.max(board.getNumRows(), board.getNumColumns());
+            if((long) (hi - lo) * longest > TASK_CELLS && hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                ScanTask right = new ScanTask(board, heights, dir, mid, hi);
+                right.fork();
+                LineList lines = new ScanTask(board, heights, dir, lo, mid).compute();
+                lines.addAll(right.join());
+                return lines;
+            }
+
+            LineList lines = new LineList();
+            for(int line = lo; line < hi; line++) {
+                scanLine(line, lines);
+            }
+            return lines;
+        }
+
+        private void scanLine(int line, LineList lines) {
+            int numRow = board.getNumRows();
+            int numCol = board.getNumColumns();
+            int numToWin = board.getNumToWin();
+            int r;
+            int c;
+
+            //rows and columns are numbered from 0, diagonals start along the bottom row, then up the side
+            if(dir == LineTable.HORIZONTAL) {
+                r = line;
+                c = 0;
+            }
+            else if(dir == LineTable.VERTICAL) {
+                r = 0;
+                c = line;
+            }
+            else if(line < numCol) {
+                r = 0;
+                c = line;
+            }
+            else {
+                r = line - numCol + 1;
+                c = dir == LineTable.DIAGONAL ? 0 : numCol - 1;
+            }
+
+            char runPlayer = ' ';
+            int runLength = 0;
+            int startRow = r;
+            int startCol = c;
+            while(r < numRow && c >= 0 && c < numCol) {
+                char p = r < heights[c] ? board.whatsAtPos(new BoardPosition(r, c)) : ' ';
+                if(p != runPlayer) {
+                    if(runPlayer != ' ' && runLength >= numToWin) {
+                        lines.add(startRow, startCol, dir, runLength, runPlayer);
+                    }
+                    runPlayer = p;
+                    runLength = 0;
+                    startRow = r;
+                    startCol = c;
+                }
+                runLength++;
+                r += ROW_STEP[dir];
+                c += COL_STEP[dir];
+            }
+            if(runPlayer != ' ' && runLength >= numToWin) {
+                lines.add(startRow, startCol, dir, runLength, runPlayer);
+            }
+        }
+    }
+}
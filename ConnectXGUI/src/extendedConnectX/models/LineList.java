@@ -0,0 +1,93 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.Arrays;
+
+/**
+ * A class that holds a list of lines of tokens without an object per line. Each line is stored
+ * as five ints in one array: the row and column of its first cell, its LineTable direction, its
+ * length and the player's token.
+ *
+ * @author Skylar Hubbarth
+ * @version 3.0
+ *
+ * @invariant
+ * 0 <= size <= data.length / FIELDS
+ * [the cells of line i are (getRow(i) + k * rowStep, getColumn(i) + k * colStep) for
+ *  0 <= k < getLength(i), with the steps of getDirection(i)]
+ *
+ */
+
+public final class LineList {
+
+    private static final int FIELDS = 5;
+
+    private int[] data = new int[FIELDS * 4];
+    private int size;
+
+    /**
+     * Method to add a line to the end of the list.
+     *
+     * @param row, the row of the first cell
+     * @param col, the column of the first cell
+     * @param dir, the LineTable direction
+     * @param length, the number of cells
+     * @param p, the player
+     *
+     * @post
+     * size = #size + 1 AND [the line is the last in the list]
+     *
+     */
+    public void add(int row, int col, int dir, int length, char p) {
+        if((size + 1) * FIELDS > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        int i = size * FIELDS;
+        data[i] = row;
+        data[i + 1] = col;
+        data[i + 2] = dir;
+        data[i + 3] = length;
+        data[i + 4] = p;
+        size++;
+    }
+
+    /**
+     * Method to add every line of another list to the end of this one.
+     *
+     * @param other, the lines to add
+     *
+     * @post
+     * size = #size + other.size AND [other's lines follow this list's lines, in order]
+     *
+     */
+    public void addAll(LineList other) {
+        if((size + other.size) * FIELDS > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, (size + other.size) * FIELDS));
+        }
+        System.arraycopy(other.data, 0, data, size * FIELDS, other.size * FIELDS);
+        size += other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getRow(int i) {
+        return data[i * FIELDS];
+    }
+
+    public int getColumn(int i) {
+        return data[i * FIELDS + 1];
+    }
+
+    public int getDirection(int i) {
+        return data[i * FIELDS + 2];
+    }
+
+    public int getLength(int i) {
+        return data[i * FIELDS + 3];
+    }
+
+    public char getPlayer(int i) {
+        return (char) data[i * FIELDS + 4];
+    }
+}
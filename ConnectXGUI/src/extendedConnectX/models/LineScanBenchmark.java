@@ -0,0 +1,90 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.Random;
+
+/**
+ * This class compares a full-board line scan with {@link BitLineScanner} against checking every
+ * token with checkHorizWin, checkVertWin and checkDiagWin, on a large board with no winner, which
+ * is the case where every line has to be looked at. It also checks that both find the same
+ * lines.
+ *
+ * @version 3.0
+ */
+public class LineScanBenchmark {
+
+    private static final char[] PLAYERS = {'X', 'O'};
+
+    /**
+     * <p>
+     * This is the benchmark entry point.
+     * </p>
+     *
+     * @param args
+     *      [rows=100] [cols=100] [numToWin=25] [rounds=50]
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int numToWin = args.length > 2 ? Integer.parseInt(args[2]) : 25;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+        //fill about three quarters of the board with random tokens
+        IGameBoard board = new GameBoard(rows, cols, numToWin);
+        Random random = new Random(2150);
+        for(int i = 0; i < rows * cols * 3 / 4; i++) {
+            int c = random.nextInt(cols);
+            if(board.checkIfFree(c)) {
+                board.placeToken(PLAYERS[random.nextInt(PLAYERS.length)], c);
+            }
+        }
+
+        BitLineScanner scanner = BitLineScanner.of(board, PLAYERS);
+        if(scalarWinner(board) != scanner.winner()) {
+            throw new IllegalStateException("Scans disagree on the winner");
+        }
+
+        System.out.printf("%dx%d board, %d to win, %d rounds%n", rows, cols, numToWin, rounds);
+        for(int warmup = 0; warmup < 2; warmup++) {
+            long scalar = time(rounds, () -> scalarWinner(board));
+            long build = time(rounds, () -> BitLineScanner.of(board, PLAYERS).winner());
+            long scan = time(rounds, scanner::winner);
+
+            if(warmup == 1) {
+                System.out.printf("%-34s %10.3f ms%n", "checkHoriz/Vert/DiagWin per token", scalar / 1e6);
+                System.out.printf("%-34s %10.3f ms  %6.1fx%n", "bit planes, copied from the board", build / 1e6,
+                        (double) scalar / build);
+                System.out.printf("%-34s %10.3f ms  %6.1fx%n", "bit planes, already built", scan / 1e6,
+                        (double) scalar / scan);
+            }
+        }
+
+        for(char p : PLAYERS) {
+            System.out.printf("%c: %d open windows, longest runs %d/%d/%d/%d%n", p, scanner.countOpenWindows(p),
+                    scanner.longestRun(p, LineTable.HORIZONTAL), scanner.longestRun(p, LineTable.VERTICAL),
+                    scanner.longestRun(p, LineTable.DIAGONAL), scanner.longestRun(p, LineTable.ANTI_DIAGONAL));
+        }
+    }
+
+    private static char scalarWinner(IGameBoard board) {
+        for(int r = 0; r < board.getNumRows(); r++) {
+            for(int c = 0; c < board.getNumColumns(); c++) {
+                BoardPosition pos = new BoardPosition(r, c);
+                char p = board.whatsAtPos(pos);
+                if(p != ' ' && (board.checkHorizWin(pos, p) || board.checkVertWin(pos, p)
+                        || board.checkDiagWin(pos, p))) {
+                    return p;
+                }
+            }
+        }
+        return ' ';
+    }
+
+    //average nanoseconds per run
+    private static long time(int rounds, Runnable scan) {
+        long start = System.nanoTime();
+        for(int i = 0; i < rounds; i++) {
+            scan.run();
+        }
+        return (System.nanoTime() - start) / rounds;
+    }
+}
@@ -0,0 +1,426 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A class that holds every winning line (window) of numToWin cells on a board of a given size,
+ * and for every cell, the windows that pass through it. A window is a horizontal, vertical or
+ * diagonal line of exactly numToWin cells. Cells are numbered row * numCol + col.
+ *
+ * All of the tables are flat int arrays. The table only depends on (rows, cols, numToWin), so
+ * one immutable instance is shared by every board with that configuration. Instances are kept
+ * in a small least recently used cache. Every win check looks its table up, so hits take no lock
+ * and only mark the table as used since the last miss, which at most once per miss writes to it;
+ * a miss evicts the table that has gone unused for the most misses.
+ *
+ * @author Skylar Hubbarth
+ * @version 3.0
+ *
+ * @invariant
+ * windowCells.length = getNumWindows() * numToWin
+ * windowDirection.length = getNumWindows()
+ * cellStart.length = numRow * numCol + 1
+ * [the windows through cell are cellWindows[cellStart[cell]] .. cellWindows[cellStart[cell + 1] - 1]]
+ *
+ */
+
+public final class LineTable {
+
+    public static final int HORIZONTAL = 0;
+    public static final int VERTICAL = 1;
+    public static final int DIAGONAL = 2;
+    public static final int ANTI_DIAGONAL = 3;
+
+    public static final int CACHE_SIZE = 32;
+
+    //row and column steps, indexed by direction
+    private static final int[] ROW_STEP = {0, 1, 1, 1};
+    private static final int[] COL_STEP = {1, 0, 1, -1};
+
+    private static final Map<Long, LineTable> cache = new ConcurrentHashMap<>();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private final int numRow;
+    private final int numCol;
+    private final int numToWin;
+    private final int numWindows;
+    private final int[] windowCells;
+    private final int[] windowDirection;
+    private final int[] cellStart;
+    private final int[] cellWindows;
+
+    //the number of cache misses when the table was last used, for choosing what to evict
+    private volatile long lastUsed;
+
+    /**
+     * Constructor to build the line table of a board.
+     *
+     * @param row, the number of rows
+     * @param col, the number of columns
+     * @param numToWin, the number to win
+     *
+     * @pre
+     * MIN_ROW <= row <= MAX_ROW
+     * MIN_COL <= col <= MAX_COL
+     * MIN_COUNT <= numToWin <= MAX_COUNT
+     *
+     * @post
+     * [windowCells holds every line of numToWin cells on the board]
+     * [cellWindows holds, grouped by cell, the index of every window containing that cell]
+     *
+     */
+    private LineTable(int row, int col, int numToWin) {
+        numRow = row;
+        numCol = col;
+        this.numToWin = numToWin;
+
+        //count first so every table is allocated exactly once
+        int count = 0;
+        for(int dir = 0; dir < ROW_STEP.length; dir++) {
+            count += windowStarts(dir);
+        }
+        numWindows = count;
+        windowCells = new int[numWindows * numToWin];
+        windowDirection = new int[numWindows];
+
+        int w = 0;
+        for(int dir = 0; dir < ROW_STEP.length; dir++) {
+            for(int r = 0; r < row; r++) {
+                for(int c = 0; c < col; c++) {
+                    if(fits(r, c, dir)) {
+                        windowDirection[w] = dir;
+                        for(int i = 0; i < numToWin; i++) {
+                            windowCells[w * numToWin + i] = (r + ROW_STEP[dir] * i) * col + (c + COL_STEP[dir] * i);
+                        }
+                        w++;
+                    }
+                }
+            }
+        }
+
+        cellStart = new int[row * col + 1];
+        for(int cell : windowCells) {
+            cellStart[cell + 1]++;
+        }
+        for(int cell = 0; cell < row * col; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+
+        cellWindows = new int[windowCells.length];
+        int[] next = new int[row * col];
+        for(int i = 0; i < windowCells.length; i++) {
+            int cell = windowCells[i];
+            cellWindows[cellStart[cell] + next[cell]++] = i / numToWin;
+        }
+    }
+
+    /**
+     * Method to get the shared line table for a board configuration, building it the first time
+     * that configuration is requested.
+     *
+     * @param row, the number of rows
+     * @param col, the number of columns
+     * @param numToWin, the number to win
+     *
+     * @return the line table for (row, col, numToWin)
+     *
+     * @pre
+     * MIN_ROW <= row <= MAX_ROW
+     * MIN_COL <= col <= MAX_COL
+     * MIN_COUNT <= numToWin <= MAX_COUNT
+     *
+     * @post
+     * get = [the cached line table for (row, col, numToWin)]
+     * [(row, col, numToWin) is among the entries of the cache used since the last miss]
+     *
+     */
+    public static LineTable get(int row, int col, int numToWin) {
+        long key = ((long) row << 32) | ((long) col << 16) | numToWin;
+
+        LineTable table = cache.get(key);
+        if(table != null) {
+            long now = misses.get();
+            if(table.lastUsed != now) {
+                table.lastUsed = now;
+            }
+            return table;
+        }
+
+        //only a miss locks, to add the table and evict the least recently used one
+        synchronized(cache) {
+            table = cache.get(key);
+            if(table != null) {
+                return table;
+            }
+            table = new LineTable(row, col, numToWin);
+            table.lastUsed = misses.incrementAndGet();
+            cache.put(key, table);
+
+            if(cache.size() > CACHE_SIZE) {
+                Map.Entry<Long, LineTable> eldest = null;
+                for(Map.Entry<Long, LineTable> entry : cache.entrySet()) {
+                    if(eldest == null || entry.getValue().lastUsed < eldest.getValue().lastUsed) {
+                        eldest = entry;
+                    }
+                }
+                cache.remove(eldest.getKey());
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Method to get the line table for the configuration of a board.
+     *
+     * @param board, the board
+     *
+     * @return the line table for board's rows, columns and number to win
+     *
+     * @pre
+     * [board is valid]
+     *
+     * @post
+     * forBoard = get(board.getNumRows(), board.getNumColumns(), board.getNumToWin())
+     *
+     */
+    public static LineTable forBoard(IGameBoard board) {
+        return get(board.getNumRows(), board.getNumColumns(), board.getNumToWin());
+    }
+
+    private int windowStarts(int dir) {
+        int count = 0;
+        for(int r = 0; r < numRow; r++) {
+            for(int c = 0; c < numCol; c++) {
+                if(fits(r, c, dir)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean fits(int r, int c, int dir) {
+        int endRow = r + ROW_STEP[dir] * (numToWin - 1);
+        int endCol = c + COL_STEP[dir] * (numToWin - 1);
+        return endRow < numRow && endCol >= 0 && endCol < numCol;
+    }
+
+    /**
+     * Method to get and return the number of rows of this table.
+     *
+     * @return number of rows
+     *
+     * @post
+     * getNumRows() = numRow
+     */
+    public int getNumRows() {
+        return numRow;
+    }
+
+    /**
+     * Method to get and return the number of columns of this table.
+     *
+     * @return number of columns
+     *
+     * @post
+     * getNumColumns() = numCol
+     */
+    public int getNumColumns() {
+        return numCol;
+    }
+
+    /**
+     * Method to get and return the number to win of this table.
+     *
+     * @return number to win
+     *
+     * @post
+     * getNumToWin() = numToWin
+     */
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    /**
+     * Method to get and return the number of windows of this table.
+     *
+     * @return number of windows
+     *
+     * @post
+     * getNumWindows() = numWindows
+     */
+    public int getNumWindows() {
+        return numWindows;
+    }
+
+    /**
+     * Method to get the cell number of a position.
+     *
+     * @param row, the row
+     * @param col, the column
+     *
+     * @return row * numCol + col
+     *
+     * @pre
+     * 0 <= row < numRow
+     * 0 <= col < numCol
+     *
+     * @post
+     * cell = row * numCol + col
+     *
+     */
+    public int cell(int row, int col) {
+        return row * numCol + col;
+    }
+
+    /**
+     * Method to get the i-th cell of window w.
+     *
+     * @param w, the window
+     * @param i, the index along the window
+     *
+     * @return the cell number
+     *
+     * @pre
+     * 0 <= w < getNumWindows()
+     * 0 <= i < numToWin
+     *
+     * @post
+     * windowCell = windowCells[w * numToWin + i]
+     *
+     */
+    public int windowCell(int w, int i) {
+        return windowCells[w * numToWin + i];
+    }
+
+    /**
+     * Method to get the direction of window w.
+     *
+     * @param w, the window
+     *
+     * @return one of HORIZONTAL, VERTICAL, DIAGONAL or ANTI_DIAGONAL
+     *
+     * @pre
+     * 0 <= w < getNumWindows()
+     *
+     * @post
+     * windowDirection = windowDirection[w]
+     *
+     */
+    public int windowDirection(int w) {
+        return windowDirection[w];
+    }
+
+    /**
+     * Method to get the index into cellWindows of the first window through cell.
+     *
+     * @param cell, the cell
+     *
+     * @return the first index of cell's windows
+     *
+     * @pre
+     * 0 <= cell < numRow * numCol
+     *
+     * @post
+     * cellStart = cellStart[cell]
+     *
+     */
+    public int cellStart(int cell) {
+        return cellStart[cell];
+    }
+
+    /**
+     * Method to get the index into cellWindows just past the last window through cell.
+     *
+     * @param cell, the cell
+     *
+     * @return the end index of cell's windows
+     *
+     * @pre
+     * 0 <= cell < numRow * numCol
+     *
+     * @post
+     * cellEnd = cellStart[cell + 1]
+     *
+     */
+    public int cellEnd(int cell) {
+        return cellStart[cell + 1];
+    }
+
+    /**
+     * Method to get an entry of the flat per-cell window list.
+     *
+     * @param i, an index between cellStart(cell) and cellEnd(cell)
+     *
+     * @return the window at index i
+     *
+     * @pre
+     * 0 <= i < cellWindows.length
+     *
+     * @post
+     * cellWindow = cellWindows[i]
+     *
+     */
+    public int cellWindow(int i) {
+        return cellWindows[i];
+    }
+
+    /**
+     * Method to check whether every cell of window w holds player p on a board.
+     *
+     * @param board, the board
+     * @param w, the window
+     * @param p, the player
+     *
+     * @return true if p holds the whole window, otherwise false
+     *
+     * @pre
+     * [board has this table's configuration]
+     * 0 <= w < getNumWindows()
+     *
+     * @post
+     * isWindowFull = [every cell of window w on board is p]
+     *
+     */
+    public boolean isWindowFull(IGameBoard board, int w, char p) {
+        for(int i = w * numToWin; i < (w + 1) * numToWin; i++) {
+            int cell = windowCells[i];
+            if(board.whatsAtPos(new BoardPosition(cell / numCol, cell % numCol)) != p) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method to check whether player p holds a whole window through pos in the given direction.
+     *
+     * @param board, the board
+     * @param pos, the position [row][col]
+     * @param p, the player
+     * @param dir, the direction, or -1 for any direction
+     *
+     * @return true if a window through pos in direction dir is all p, otherwise false
+     *
+     * @pre
+     * [board has this table's configuration]
+     * [pos is valid]
+     *
+     * @post
+     * hasWinThrough = [some window through pos with direction dir is full of p]
+     *
+     */
+    public boolean hasWinThrough(IGameBoard board, BoardPosition pos, char p, int dir) {
+        int cell = cell(pos.getRow(), pos.getColumn());
+
+        for(int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            int w = cellWindows[i];
+            if((dir == -1 || windowDirection[w] == dir) && isWindowFull(board, w, p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
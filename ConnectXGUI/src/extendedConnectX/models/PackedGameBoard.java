@@ -0,0 +1,265 @@
+package cpsc2150.extendedConnectX.models;
+
+import cpsc2150.extendedConnectX.metrics.Metrics;
+
+/**
+ * Class PackedGameBoard that implements the interface in IGameBoard and extends the abstract class AbsGameBoard
+ * and keeps the whole board in one flat byte array with two cells per byte.
+ *
+ * A cell only has MAX_PLAYERS + 1 states, so each cell is a 4 bit id: 0 for empty, otherwise the
+ * index of the player's token in tokens plus one. Tokens are given ids in the order they are first
+ * played. Cell (r, c) is nibble r * numCol + c, the low nibble of a byte first, so reading a cell is
+ * one array read and a shift.
+ *
+ * @author Skylar Hubbarth
+ * @version 3.0
+ *
+ * @invariant [p is valid]
+ * @invariant [pos is valid]
+ * @invariant [Board has no gaps between tokens]
+ * @invariant MIN_ROW <= numRow <= MAX_ROW
+ * @invariant MIN_COL <= numCol <= MAX_COL
+ * @invariant MIN_COUNT <= numToWin <= MAX_COUNT
+ * @invariant 0 <= numTokens <= MAX_PLAYERS
+ * @invariant 0 <= heights[c] <= numRow
+ *
+ * @correspondences [number of columns] = numCol
+ * @correspondences [number of rows] = numRow
+ * @correspondences [number to win] = numToWin
+ * @correspondences [token at (r, c)] = tokens[[nibble r * numCol + c of cells] - 1], or ' ' if it is 0
+ *
+ */
+
+public class PackedGameBoard extends AbsGameBoard implements IGameBoard {
+
+    private final int numCol; //column
+    private final int numRow; //row
+    private final int numToWin;
+    private final byte[] cells;
+    private final byte[] heights;
+    private final char[] tokens = new char[MAX_PLAYERS];
+    private int numTokens;
+
+    /**
+     * Constructor to initiate the game board.
+     *
+     * @param row, the row
+     * @param col, the column
+     * @param numToWin, the number to win
+     *
+     * @pre
+     * row <= Byte.MAX_VALUE
+     *
+     * @post
+     * [The board is initialized and every single position is empty]
+     *
+     */
+    public PackedGameBoard(int row, int col, int numToWin) {
+        numRow = row;
+        numCol = col;
+        this.numToWin = numToWin;
+        cells = new byte[(row * col + 1) / 2];
+        heights = new byte[col];
+    }
+
+    /**
+     * Method to place the character p in column c. The token will be placed in the
+     * lowest available row in column c.
+     *
+     * @param p, player
+     * @param c, column
+     *
+     * @pre
+     * [p is valid]
+     * 0 <= c <= getNumColumns()
+     * checkIfFree == true
+     *
+     * @post
+     * [position of p = lowest row in column c]
+     * heights[c] = #heights[c] + 1
+     *
+     */
+    public void placeToken(char p, int c) {
+        if(Metrics.ENABLED) {
+            Metrics.count(Metrics.PLACE_TOKEN, this);
+        }
+
+        int cell = heights[c]++ * numCol + c;
+        cells[cell >> 1] |= (byte) (idOf(p) << ((cell & 1) << 2));
+    }
+
+    /**
+     * Method to remove the top token from column c. This undoes the most recent placeToken
+     * in that column.
+     *
+     * @param c, column
+     *
+     * @pre
+     * 0 <= c < getNumColumns()
+     * [column c contains at least one token]
+     *
+     * @post
+     * [the highest token in column c is removed]
+     * heights[c] = #heights[c] - 1
+     *
+     */
+    public void removeToken(int c) {
+        if(heights[c] > 0) {
+            int cell = --heights[c] * numCol + c;
+            cells[cell >> 1] &= (byte) ~(0xF << ((cell & 1) << 2));
+        }
+    }
+
+    /**
+     * Method to check and return what is in the game board at position pos.
+     *
+     * @return returns what is in the GameBoard at position pos. If no token is there, it returns
+     * a blank space char.
+     *
+     * @param pos, the position [row][col]
+     *
+     * @pre
+     * pos.getRow < getNumRow() && pos.getRow > -1
+     * pos.getCol < getNumColumn() && pos.getCol > -1
+     *
+     * @post
+     * whatsAtPos == [char at position pos] iff [pos is not empty]
+     * [else,] whatsAtPos == ' '
+     *
+     */
+    public char whatsAtPos(BoardPosition pos) {
+        if(Metrics.ENABLED) {
+            Metrics.count(Metrics.WHATS_AT_POS, this);
+        }
+
+        int cell = pos.getRow() * numCol + pos.getColumn();
+        int id = (cells[cell >> 1] >> ((cell & 1) << 2)) & 0xF;
+        return id == 0 ? ' ' : tokens[id - 1];
+    }
+
+    /**
+     * Method to create a new board holding the same tokens as this one.
+     *
+     * @return a copy of this board
+     *
+     * @post
+     * copy = [a new PackedGameBoard with the same size, number to win and tokens as self]
+     * self = #self
+     *
+     */
+    @Override
+    public PackedGameBoard copy() {
+        PackedGameBoard copy = new PackedGameBoard(numRow, numCol, numToWin);
+        copyInto(copy);
+        return copy;
+    }
+
+    /**
+     * Method to make target hold the same tokens as this board. A PackedGameBoard target has
+     * the cells, heights and token table copied over its own arrays.
+     *
+     * @param target, the board to overwrite
+     *
+     * @pre
+     * [target has the same number of rows and columns as self]
+     * target != self
+     *
+     * @post
+     * [target holds the same tokens as self]
+     * self = #self
+     *
+     */
+    @Override
+    public void copyInto(IGameBoard target) {
+        if(!(target instanceof PackedGameBoard) || target.getNumRows() != numRow
+                || target.getNumColumns() != numCol) {
+            super.copyInto(target);
+            return;
+        }
+
+        PackedGameBoard other = (PackedGameBoard) target;
+        System.arraycopy(cells, 0, other.cells, 0, cells.length);
+        System.arraycopy(heights, 0, other.heights, 0, heights.length);
+        System.arraycopy(tokens, 0, other.tokens, 0, numTokens);
+        other.numTokens = numTokens;
+    }
+
+    /**
+     * Method to check if column c can take another token, from the column height alone.
+     *
+     * @param c, column
+     *
+     * @return true if column c is not full
+     *
+     * @pre
+     * 0 <= c < getNumColumns()
+     *
+     * @post
+     * checkIfFree = heights[c] < numRow
+     *
+     */
+    @Override
+    public boolean checkIfFree(int c) {
+        return heights[c] < numRow;
+    }
+
+    /**
+     * Method to get and return the number of rows in PackedGameBoard.
+     *
+     * @return number of rows
+     *
+     * @pre
+     * MIN_ROW <= [number of rows] <= MAX_ROW
+     *
+     * @post
+     * getNumRows() = [number of rows]
+     *
+     */
+    public int getNumRows() {
+        return numRow;
+    }
+
+    /**
+     * Method to get and return the number of columns in PackedGameBoard.
+     *
+     * @return number of columns
+     *
+     * @pre
+     * MIN_COL <= [number of columns] <= MAX_COL
+     *
+     * @post
+     * getNumColumns() = [number of columns]
+     */
+    public int getNumColumns() {
+        return numCol;
+    }
+
+    /**
+     * Method to get and return the number of tokens in a row needed to win the game.
+     *
+     * @return number of tokens in a row needed to win the game
+     *
+     * @pre
+     * MIN_COUNT <= [number to win] <= MAX_COUNT
+     *
+     * @post
+     * getNumToWin() = [number to win]
+     */
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    //the 4 bit id of p, given the next free id the first time p is played
+    private int idOf(char p) {
+        for(int i = 0; i < numTokens; i++) {
+            if(tokens[i] == p) {
+                return i + 1;
+            }
+        }
+        if(numTokens == tokens.length) {
+            throw new IllegalArgumentException("More than " + MAX_PLAYERS + " players");
+        }
+        tokens[numTokens] = p;
+        return ++numTokens;
+    }
+}
@@ -0,0 +1,293 @@
+package cpsc2150.extendedConnectX.models;
+
+import cpsc2150.extendedConnectX.metrics.Metrics;
+
+import java.util.Arrays;
+
+/**
+ * Class StackGameBoard that implements the interface in IGameBoard and extends the abstract class AbsGameBoard
+ * and stores each column as a stack, since tokens always fall to the lowest free row.
+ *
+ * Each column is a byte array of player ids from the bottom up, allocated on the first token and
+ * grown as the column fills, so memory is proportional to the tokens played and there is no
+ * object per token. Ids are given to tokens in the order they are first played, starting at 0.
+ * A position above the top of its column is empty, so whatsAtPos is a bounds check and one
+ * array read.
+ *
+ * @author Skylar Hubbarth
+ * @version 3.0
+ *
+ * @invariant [p is valid]
+ * @invariant [pos is valid]
+ * @invariant [Board has no gaps between tokens]
+ * @invariant MIN_ROW <= numRow <= MAX_ROW
+ * @invariant MIN_COL <= numCol <= MAX_COL
+ * @invariant MIN_COUNT <= numToWin <= MAX_COUNT
+ * @invariant 0 <= heights[c] <= numRow
+ * @invariant 0 <= numTokens <= MAX_PLAYERS
+ *
+ * @correspondences [number of columns] = numCol
+ * @correspondences [number of rows] = numRow
+ * @correspondences [number to win] = numToWin
+ * @correspondences [token at (r, c)] = tokens[columns[c][r]] iff r < heights[c], otherwise ' '
+ *
+ */
+
+public class StackGameBoard extends AbsGameBoard implements IGameBoard {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final int numRow; //row
+    private final int numCol; //column
+    private final int numToWin;
+    private final byte[][] columns;
+    private final int[] heights;
+    private final char[] tokens = new char[MAX_PLAYERS];
+    private int numTokens;
+
+    /**
+     * Constructor to initiate the game board.
+     *
+     * @param row, the row
+     * @param col, the column
+     * @param numWin, the number to win
+     *
+     * @pre
+     *
+     * @post
+     * [numRow is initialized to row]
+     * [numCol is initialized to col]
+     * [numToWin is initialized to numWin]
+     * [every column is empty and has no array yet]
+     */
+    public StackGameBoard(int row, int col, int numWin) {
+        numRow = row;
+        numCol = col;
+        numToWin = numWin;
+        columns = new byte[col][];
+        heights = new int[col];
+    }
+
+    /**
+     * Method to place the character p in column c. The token will be placed in the
+     * lowest available row in column c.
+     *
+     * @param p, player
+     * @param c, column
+     *
+     * @pre
+     * [p is valid]
+     * 0 <= c <= getNumColumns()
+     * checkIfFree == true
+     *
+     * @post
+     * [position of p = lowest row in column c]
+     * heights[c] = #heights[c] + 1
+     *
+     */
+    public void placeToken(char p, int c) {
+        if(Metrics.ENABLED) {
+            Metrics.count(Metrics.PLACE_TOKEN, this);
+        }
+
+        byte[] column = columns[c];
+        int height = heights[c];
+
+        if(column == null) {
+            column = new byte[Math.min(INITIAL_CAPACITY, numRow)];
+            columns[c] = column;
+        }
+        else if(height == column.length) {
+            column = Arrays.copyOf(column, Math.min(numRow, column.length * 2));
+            columns[c] = column;
+        }
+
+        column[height] = idOf(p);
+        heights[c] = height + 1;
+    }
+
+    /**
+     * Method to remove the top token from column c. This undoes the most recent placeToken
+     * in that column.
+     *
+     * @param c, column
+     *
+     * @pre
+     * 0 <= c < getNumColumns()
+     * [column c contains at least one token]
+     *
+     * @post
+     * [the highest token in column c is removed]
+     * heights[c] = #heights[c] - 1
+     *
+     */
+    public void removeToken(int c) {
+        if(heights[c] > 0) {
+            heights[c]--;
+        }
+    }
+
+    /**
+     * Method to check and return what is in the game board at position pos.
+     *
+     * @return returns what is in the GameBoard at position pos. If no token is there, it returns
+     * a blank space char.
+     *
+     * @param pos, the position [row][col]
+     *
+     * @pre
+     * pos.getRow < getNumRow() && pos.getRow > -1
+     * pos.getCol < getNumColumn() && pos.getCol > -1
+     *
+     * @post
+     * whatsAtPos == [char at position pos] iff [pos is not empty]
+     * [else,] whatsAtPos == ' '
+     *
+     */
+    public char whatsAtPos(BoardPosition pos) {
+        if(Metrics.ENABLED) {
+            Metrics.count(Metrics.WHATS_AT_POS, this);
+        }
+
+        int c = pos.getColumn();
+        int r = pos.getRow();
+        return r < heights[c] ? tokens[columns[c][r]] : ' ';
+    }
+
+    /**
+     * Method to create a new board holding the same tokens as this one.
+     *
+     * @return a copy of this board
+     *
+     * @post
+     * copy = [a new StackGameBoard with the same size, number to win and tokens as self]
+     * self = #self
+     *
+     */
+    @Override
+    public StackGameBoard copy() {
+        StackGameBoard copy = new StackGameBoard(numRow, numCol, numToWin);
+        copyInto(copy);
+        return copy;
+    }
+
+    /**
+     * Method to make target hold the same tokens as this board. A StackGameBoard target has
+     * each column copied into the array it already has, which is only replaced if it is too
+     * small.
+     *
+     * @param target, the board to overwrite
+     *
+     * @pre
+     * [target has the same number of rows and columns as self]
+     * target != self
+     *
+     * @post
+     * [target holds the same tokens as self]
+     * self = #self
+     *
+     */
+    @Override
+    public void copyInto(IGameBoard target) {
+        if(!(target instanceof StackGameBoard) || target.getNumRows() != numRow
+                || target.getNumColumns() != numCol) {
+            super.copyInto(target);
+            return;
+        }
+
+        StackGameBoard other = (StackGameBoard) target;
+        for(int c = 0; c < numCol; c++) {
+            int height = heights[c];
+            if(height > 0) {
+                byte[] column = other.columns[c];
+                if(column == null || column.length < height) {
+                    column = new byte[columns[c].length];
+                    other.columns[c] = column;
+                }
+                System.arraycopy(columns[c], 0, column, 0, height);
+            }
+        }
+        System.arraycopy(heights, 0, other.heights, 0, numCol);
+        System.arraycopy(tokens, 0, other.tokens, 0, numTokens);
+        other.numTokens = numTokens;
+    }
+
+    /**
+     * Method to check if column c can take another token, from the column height alone.
+     *
+     * @param c, column
+     *
+     * @return true if column c is not full
+     *
+     * @pre
+     * 0 <= c < getNumColumns()
+     *
+     * @post
+     * checkIfFree = heights[c] < numRow
+     *
+     */
+    @Override
+    public boolean checkIfFree(int c) {
+        return heights[c] < numRow;
+    }
+
+    /**
+     * Method to get and return the number of rows in StackGameBoard.
+     *
+     * @return number of rows
+     *
+     * @pre
+     * MIN_ROW <= [number of rows] <= MAX_ROW
+     *
+     * @post
+     * getNumRows() = [number of rows]
+     *
+     */
+    public int getNumRows() {
+        return numRow;
+    }
+
+    /**
+     * Method to get and return the number of columns in StackGameBoard.
+     *
+     * @return number of columns
+     *
+     * @pre
+     * MIN_COL <= [number of columns] <= MAX_COL
+     *
+     * @post
+     * getNumColumns() = [number of columns]
+     */
+    public int getNumColumns() {
+        return numCol;
+    }
+
+    /**
+     * Method to get and return the number of tokens in a row needed to win the game.
+     *
+     * @return number of tokens in a row needed to win the game
+     *
+     * @pre
+     * MIN_COUNT <= [number to win] <= MAX_COUNT
+     *
+     * @post
+     * getNumToWin() = [number to win]
+     */
+    public int getNumToWin() {
+        return numToWin;
+    }
+
+    //the id of p, given the next free id the first time p is played
+    private byte idOf(char p) {
+        for(int i = 0; i < numTokens; i++) {
+            if(tokens[i] == p) {
+                return (byte) i;
+            }
+        }
+        if(numTokens == tokens.length) {
+            throw new IllegalArgumentException("More than " + MAX_PLAYERS + " players");
+        }
+        tokens[numTokens] = p;
+        return (byte) numTokens++;
+    }
+}
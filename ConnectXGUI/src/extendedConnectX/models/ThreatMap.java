@@ -0,0 +1,286 @@
+package cpsc2150.extendedConnectX.models;
+
+/**
+ * Class ThreatMap keeps, for every cell and every player, the directions in which a token of
+ * that player in the cell would complete numToWin in a row with the tokens around it, and for
+ * every player the columns whose next free cell does that. The columns are the must-play moves:
+ * the player to move wins by playing one of theirs, and must block the next player's.
+ *
+ * What a cell holds itself does not matter to its own directions, so placing or removing a token
+ * only changes, in each direction, the first cell past the run of the mover's tokens on either
+ * side of it; the runs of every other cell end before reaching it. The one exception is a cell
+ * inside a run of its own player's tokens, which is skipped over while it holds a token and so
+ * is worked out again when that token is removed. Each move therefore costs O(numToWin) instead
+ * of a scan of the board.
+ *
+ * Column masks are longs, so boards can have at most MAX_COLUMNS columns.
+ *
+ * The map mirrors a board: every placeToken/removeToken made on the board should be made on the
+ * map as well.
+ *
+ * @author Skylar Hubbarth
+ * @version 3.0
+ *
+ * @invariant
+ * [unless cell holds a token of p, bit d of directions[cell * numPlayers + p] = p's token in cell
+ *  would complete numToWin in a row in direction d]
+ * [bit c of winning[p] = directions[[next free cell of column c] * numPlayers + p] != 0]
+ * 0 <= heights[c] <= numRow
+ *
+ */
+
+public class ThreatMap {
+
+    public static final int MAX_COLUMNS = Long.SIZE;
+
+    //row and column steps, indexed by direction as in LineTable
+    private static final int[] ROW_STEP = {0, 1, 1, 1};
+    private static final int[] COL_STEP = {1, 0, 1, -1};
+
+    private final char[] players;
+    private final int numPlayers;
+    private final int numRow;
+    private final int numCol;
+    private final int numToWin;
+
+    private final byte[] cells; //0 is empty, otherwise player id + 1
+    private final int[] heights;
+    private final byte[] directions;
+    private final long[] winning;
+
+    /**
+     * Constructor to create a threat map for the current state of a board.
+     *
+     * @param board, the board to mirror
+     * @param players, the player tokens in turn order
+     *
+     * @throws IllegalArgumentException if board has more than MAX_COLUMNS columns
+     *
+     * @pre
+     * MIN_PLAYERS <= players.length <= MAX_PLAYERS
+     * [every token on board is in players]
+     *
+     * @post
+     * [the map holds the same tokens as board]
+     *
+     */
+    public ThreatMap(IGameBoard board, char[] players) {
+        numRow = board.getNumRows();
+        numCol = board.getNumColumns();
+        if(numCol > MAX_COLUMNS) {
+            throw new IllegalArgumentException("A threat map holds at most " + MAX_COLUMNS + " columns, not " + numCol);
+        }
+        numToWin = board.getNumToWin();
+        this.players = players.clone();
+        numPlayers = players.length;
+
+        cells = new byte[numRow * numCol];
+        heights = new int[numCol];
+        directions = new byte[numRow * numCol * numPlayers];
+        winning = new long[numPlayers];
+
+        //tokens have no gaps, so replay each column from the bottom up
+        for(int c = 0; c < numCol; c++) {
+            for(int r = 0; r < numRow; r++) {
+                char p = board.whatsAtPos(new BoardPosition(r, c));
+                if(p == ' ') {
+                    break;
+                }
+                placeToken(p, c);
+            }
+        }
+    }
+
+    /**
+     * Method to record that player p placed a token in column c.
+     *
+     * @param p, player
+     * @param c, column
+     *
+     * @pre
+     * [p is one of the players]
+     * 0 <= c < numCol
+     * heights[c] < numRow
+     *
+     * @post
+     * [the cells past p's runs through the placed cell are updated for p]
+     * heights[c] = #heights[c] + 1
+     *
+     */
+    public void placeToken(char p, int c) {
+        int id = playerId(p);
+        int row = heights[c];
+        heights[c]++;
+        cells[row * numCol + c] = (byte) (id + 1);
+
+        updateRuns(row, c, id, true);
+        updateColumn(c);
+    }
+
+    /**
+     * Method to undo the top token in column c.
+     *
+     * @param c, column
+     *
+     * @pre
+     * 0 <= c < numCol
+     * heights[c] > 0
+     *
+     * @post
+     * [the emptied cell and the cells past the runs through it are updated for its player]
+     * heights[c] = #heights[c] - 1
+     *
+     */
+    public void undo(int c) {
+        heights[c]--;
+        int row = heights[c];
+        int cell = row * numCol + c;
+        int id = cells[cell] - 1;
+        cells[cell] = 0;
+
+        updateRuns(row, c, id, false);
+        updateColumn(c);
+    }
+
+    /**
+     * Method to check if player p's token in an empty cell would complete numToWin in a row.
+     *
+     * @param row, row of the cell
+     * @param col, column of the cell
+     * @param p, player
+     *
+     * @return true if the cell is empty and wins for p, false otherwise
+     *
+     * @pre
+     * 0 <= row < numRow
+     * 0 <= col < numCol
+     * [p is one of the players]
+     *
+     * @post
+     * isThreat = [the cell is empty] and directions[(row * numCol + col) * numPlayers + p] != 0
+     *
+     */
+    public boolean isThreat(int row, int col, char p) {
+        int cell = row * numCol + col;
+        return cells[cell] == 0 && directions[cell * numPlayers + playerId(p)] != 0;
+    }
+
+    /**
+     * Method to get the columns player p would win in by playing there now.
+     *
+     * @param p, player
+     *
+     * @return a mask with bit c set if the next free cell of column c wins for p
+     *
+     * @pre
+     * [p is one of the players]
+     *
+     * @post
+     * getWinningColumns = winning[p]
+     *
+     */
+    public long getWinningColumns(char p) {
+        return winning[playerId(p)];
+    }
+
+    /**
+     * Method to get the columns the player to move must consider: their own wins and the wins
+     * of the player after them, which have to be blocked.
+     *
+     * @param current, the player to move
+     * @param next, the player after them
+     *
+     * @return a mask with bit c set if column c wins for current or for next
+     *
+     * @pre
+     * [current and next are players]
+     *
+     * @post
+     * getMustPlayColumns = winning[current] | winning[next]
+     *
+     */
+    public long getMustPlayColumns(char current, char next) {
+        return winning[playerId(current)] | winning[playerId(next)];
+    }
+
+    //updates the cells just past id's runs on either side of (row, col), where id's token has
+    //just been placed, or just removed, which splits the runs apart; a removed token's cell
+    //was passed over while it was in id's runs, so it is updated as well
+    private void updateRuns(int row, int col, int id, boolean placed) {
+        for(int d = 0; d < ROW_STEP.length; d++) {
+            //not capped, the cells past the runs must be found even beside a finished line
+            int after = run(row, col, d, 1, id, Integer.MAX_VALUE);
+            int before = run(row, col, d, -1, id, Integer.MAX_VALUE);
+            int joined = after + 1 + before;
+            update(row + (after + 1) * ROW_STEP[d], col + (after + 1) * COL_STEP[d], d, 1, id, placed ? joined : after);
+            update(row - (before + 1) * ROW_STEP[d], col - (before + 1) * COL_STEP[d], d, -1, id, placed ? joined : before);
+            if(!placed) {
+                update(row, col, d, 1, id, before);
+            }
+        }
+    }
+
+    //recomputes direction d for id of the cell (row, col), if it is on the board, given the length
+    //of id's run next to it on the side opposite sign
+    private void update(int row, int col, int d, int sign, int id, int behind) {
+        if(!onBoard(row, col)) {
+            return;
+        }
+
+        int index = (row * numCol + col) * numPlayers + id;
+        int length = 1 + behind + run(row, col, d, sign, id, numToWin);
+        if(length >= numToWin) {
+            directions[index] |= 1 << d;
+        }
+        else {
+            directions[index] &= ~(1 << d);
+        }
+
+        if(heights[col] == row) {
+            setWinning(id, col, directions[index] != 0);
+        }
+    }
+
+    //the number of id's tokens next to (row, col) in direction d, going by sign, up to max
+    private int run(int row, int col, int d, int sign, int id, int max) {
+        int count = 0;
+        int r = row + sign * ROW_STEP[d];
+        int c = col + sign * COL_STEP[d];
+        while(count < max && onBoard(r, c) && cells[r * numCol + c] == id + 1) {
+            count++;
+            r += sign * ROW_STEP[d];
+            c += sign * COL_STEP[d];
+        }
+        return count;
+    }
+
+    //the next free cell of column c changed, so its bit is read again for every player
+    private void updateColumn(int c) {
+        int cell = heights[c] * numCol + c;
+        for(int q = 0; q < numPlayers; q++) {
+            setWinning(q, c, heights[c] < numRow && directions[cell * numPlayers + q] != 0);
+        }
+    }
+
+    private void setWinning(int id, int c, boolean wins) {
+        if(wins) {
+            winning[id] |= 1L << c;
+        }
+        else {
+            winning[id] &= ~(1L << c);
+        }
+    }
+
+    private boolean onBoard(int r, int c) {
+        return r >= 0 && r < numRow && c >= 0 && c < numCol;
+    }
+
+    private int playerId(char p) {
+        for(int i = 0; i < numPlayers; i++) {
+            if(players[i] == p) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown player " + p);
+    }
+}
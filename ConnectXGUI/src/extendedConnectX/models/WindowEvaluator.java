@@ -0,0 +1,351 @@
+package cpsc2150.extendedConnectX.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class WindowEvaluator keeps, for every window of numToWin cells on the board, the number of
+ * tokens each player has in it. The counts are updated only for the windows through the cell
+ * that changed, so placing or undoing a token costs O(windows through that cell) instead of a
+ * scan of the whole board.
+ *
+ * A window that holds tokens of only one player is "open" for that player and adds to that
+ * player's potential. A window with numToWin - 1 tokens of one player and one empty cell is a
+ * threat for that player.
+ *
+ * The evaluator mirrors a board: every placeToken/removeToken made on the board should be
+ * made on the evaluator as well.
+ *
+ * @author Skylar Hubbarth
+ * @version 3.0
+ *
+ * @invariant
+ * [counts[w * numPlayers + p] = number of tokens of player p in window w]
+ * [totals[w] = number of tokens in window w]
+ * [potential[p] = sum of weights of the windows open only for player p]
+ * 0 <= heights[c] <= numRow
+ *
+ */
+
+public class WindowEvaluator {
+
+    //owner values for windows that are not held by exactly one player
+    private static final int EMPTY = -1;
+    private static final int MIXED = -2;
+
+    private static final int MAX_SHIFT = 40;
+
+    private final LineTable table;
+    private final char[] players;
+    private final int numPlayers;
+    private final int numRow;
+    private final int numCol;
+    private final int numToWin;
+
+    private final byte[] cells; //0 is empty, otherwise player id + 1
+    private final int[] heights;
+    private final int[] counts;
+    private final int[] totals;
+    private final int[] owner;
+    private final long[] potential;
+    private final long[] weights;
+
+    //per player list of windows that are one token short of a win
+    private final int[][] threats;
+    private final int[] threatSize;
+    private final int[] threatIndex;
+
+    /**
+     * Constructor to create an evaluator for the current state of a board.
+     *
+     * @param board, the board to mirror
+     * @param players, the player tokens in turn order
+     *
+     * @pre
+     * MIN_PLAYERS <= players.length <= MAX_PLAYERS
+     * [every token on board is in players]
+     *
+     * @post
+     * [the evaluator holds the same tokens as board]
+     *
+     */
+    public WindowEvaluator(IGameBoard board, char[] players) {
+        numRow = board.getNumRows();
+        numCol = board.getNumColumns();
+        numToWin = board.getNumToWin();
+        table = LineTable.get(numRow, numCol, numToWin);
+        this.players = players.clone();
+        numPlayers = players.length;
+
+        int numWindows = table.getNumWindows();
+        cells = new byte[numRow * numCol];
+        heights = new int[numCol];
+        counts = new int[numWindows * numPlayers];
+        totals = new int[numWindows];
+        owner = new int[numWindows];
+        potential = new long[numPlayers];
+        threats = new int[numPlayers][8];
+        threatSize = new int[numPlayers];
+        threatIndex = new int[numWindows];
+        Arrays.fill(owner, EMPTY);
+        Arrays.fill(threatIndex, -1);
+
+        //each extra token in an open window is worth four times as much, a full window dwarfs the rest
+        weights = new long[numToWin + 1];
+        for(int k = 1; k < numToWin; k++) {
+            weights[k] = 1L << Math.min(2 * (k - 1), MAX_SHIFT);
+        }
+        weights[numToWin] = 1L << (MAX_SHIFT + 10);
+
+        //tokens have no gaps, so replay each column from the bottom up
+        for(int c = 0; c < numCol; c++) {
+            for(int r = 0; r < numRow; r++) {
+                char p = board.whatsAtPos(new BoardPosition(r, c));
+                if(p == ' ') {
+                    break;
+                }
+                placeToken(p, c);
+            }
+        }
+    }
+
+    /**
+     * Method to record that player p placed a token in column c.
+     *
+     * @param p, player
+     * @param c, column
+     *
+     * @pre
+     * [p is one of the players]
+     * 0 <= c < getNumColumns()
+     * heights[c] < numRow
+     *
+     * @post
+     * [the windows through the placed cell are updated for p]
+     * heights[c] = #heights[c] + 1
+     *
+     */
+    public void placeToken(char p, int c) {
+        int id = playerId(p);
+        int cell = heights[c] * numCol + c;
+        heights[c]++;
+        cells[cell] = (byte) (id + 1);
+
+        for(int i = table.cellStart(cell); i < table.cellEnd(cell); i++) {
+            int w = table.cellWindow(i);
+            int index = w * numPlayers + id;
+            int before = counts[index];
+            counts[index]++;
+            totals[w]++;
+
+            if(owner[w] == EMPTY) {
+                owner[w] = id;
+                potential[id] += weights[1];
+            }
+            else if(owner[w] == id) {
+                potential[id] += weights[before + 1] - weights[before];
+            }
+            else if(owner[w] != MIXED) {
+                //an opponent's open window is now blocked
+                int other = owner[w];
+                potential[other] -= weights[counts[w * numPlayers + other]];
+                removeThreat(other, w);
+                owner[w] = MIXED;
+            }
+
+            updateThreat(w);
+        }
+    }
+
+    /**
+     * Method to undo the top token in column c.
+     *
+     * @param c, column
+     *
+     * @pre
+     * 0 <= c < getNumColumns()
+     * heights[c] > 0
+     *
+     * @post
+     * [the windows through the removed cell are updated]
+     * heights[c] = #heights[c] - 1
+     *
+     */
+    public void undo(int c) {
+        heights[c]--;
+        int cell = heights[c] * numCol + c;
+        int id = cells[cell] - 1;
+        cells[cell] = 0;
+
+        for(int i = table.cellStart(cell); i < table.cellEnd(cell); i++) {
+            int w = table.cellWindow(i);
+            int index = w * numPlayers + id;
+            counts[index]--;
+            totals[w]--;
+            int after = counts[index];
+
+            if(totals[w] == 0) {
+                owner[w] = EMPTY;
+                potential[id] -= weights[1];
+            }
+            else if(owner[w] == id) {
+                potential[id] -= weights[after + 1] - weights[after];
+            }
+            else {
+                //a blocked window may belong to a single player again
+                for(int other = 0; other < numPlayers; other++) {
+                    if(counts[w * numPlayers + other] == totals[w]) {
+                        owner[w] = other;
+                        potential[other] += weights[totals[w]];
+                        break;
+                    }
+                }
+            }
+
+            updateThreat(w);
+        }
+    }
+
+    /**
+     * Method to get the sum of the weights of every window that is still open for player p.
+     *
+     * @param p, player
+     *
+     * @return the potential of player p
+     *
+     * @pre
+     * [p is one of the players]
+     *
+     * @post
+     * getPotential = potential[p]
+     *
+     */
+    public long getPotential(char p) {
+        return potential[playerId(p)];
+    }
+
+    /**
+     * Method to get the aggregate score of the position for player p: the potential of p minus
+     * the largest potential of any opponent.
+     *
+     * @param p, player
+     *
+     * @return the score of the position from p's point of view
+     *
+     * @pre
+     * [p is one of the players]
+     *
+     * @post
+     * getScore = potential[p] - [max potential of the other players]
+     *
+     */
+    public long getScore(char p) {
+        int id = playerId(p);
+        long best = 0;
+
+        for(int other = 0; other < numPlayers; other++) {
+            if(other != id) {
+                best = Math.max(best, potential[other]);
+            }
+        }
+
+        return potential[id] - best;
+    }
+
+    /**
+     * Method to get every empty cell that would complete a window of numToWin for player p.
+     *
+     * @param p, player
+     *
+     * @return the threat cells of player p, without duplicates
+     *
+     * @pre
+     * [p is one of the players]
+     *
+     * @post
+     * getThreats = [every empty cell that wins for p if p's token were there]
+     *
+     */
+    public List<BoardPosition> getThreats(char p) {
+        return collectThreats(playerId(p), false);
+    }
+
+    /**
+     * Method to get the threat cells of player p that can be played on the next move, i.e. the
+     * cell is the lowest empty cell of its column.
+     *
+     * @param p, player
+     *
+     * @return the immediate threat cells of player p, without duplicates
+     *
+     * @pre
+     * [p is one of the players]
+     *
+     * @post
+     * getImmediateThreats = [every threat cell of p that is the next free cell in its column]
+     *
+     */
+    public List<BoardPosition> getImmediateThreats(char p) {
+        return collectThreats(playerId(p), true);
+    }
+
+    private List<BoardPosition> collectThreats(int id, boolean playableOnly) {
+        List<BoardPosition> found = new ArrayList<>();
+
+        for(int i = 0; i < threatSize[id]; i++) {
+            for(int j = 0; j < numToWin; j++) {
+                int cell = table.windowCell(threats[id][i], j);
+                if(cells[cell] == 0) {
+                    BoardPosition pos = new BoardPosition(cell / numCol, cell % numCol);
+                    if((!playableOnly || heights[pos.getColumn()] == pos.getRow()) && !found.contains(pos)) {
+                        found.add(pos);
+                    }
+                    break;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private void updateThreat(int w) {
+        int id = owner[w];
+        boolean isThreat = id >= 0 && totals[w] == numToWin - 1;
+
+        if(isThreat && threatIndex[w] == -1) {
+            if(threatSize[id] == threats[id].length) {
+                threats[id] = Arrays.copyOf(threats[id], threats[id].length * 2);
+            }
+            threatIndex[w] = threatSize[id];
+            threats[id][threatSize[id]++] = w;
+        }
+        else if(!isThreat && threatIndex[w] != -1) {
+            for(int other = 0; other < numPlayers; other++) {
+                removeThreat(other, w);
+            }
+        }
+    }
+
+    private void removeThreat(int id, int w) {
+        int i = threatIndex[w];
+        if(i == -1 || i >= threatSize[id] || threats[id][i] != w) {
+            return;
+        }
+
+        //swap the last threat into the freed slot
+        int last = threats[id][--threatSize[id]];
+        threats[id][i] = last;
+        threatIndex[last] = i;
+        threatIndex[w] = -1;
+    }
+
+    private int playerId(char p) {
+        for(int i = 0; i < numPlayers; i++) {
+            if(players[i] == p) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown player " + p);
+    }
+}
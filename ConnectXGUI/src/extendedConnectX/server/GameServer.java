@@ -0,0 +1,225 @@
+package cpsc2150.extendedConnectX.server;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class hosts many independent games of Extended ConnectX over a local TCP socket using the
+ * {@link MoveProtocol}. Every game has its own board and {@link ConnectXGame} rules, and the games
+ * are kept in a {@link SessionRegistry}. Each connection is served by its own thread, and a
+ * connection may play any number of games.
+ * <p>
+ * Connection threads are virtual threads when the running JDK provides them, and ordinary daemon
+ * threads otherwise.
+ *
+ * @version 3.0
+ *
+ * @invariant [ every game in registry was created by a NEW_GAME request and not yet closed ]
+ */
+public class GameServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final SessionRegistry registry;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private Thread acceptThread;
+
+    /**
+     * <p>
+     * This creates a server bound to the loopback address.
+     * </p>
+     *
+     * @param port
+     *      The port to listen on, or 0 for any free port
+     * @throws IOException if the socket cannot be bound
+     */
+    public GameServer(int port) throws IOException {
+        this(port, new SessionRegistry());
+    }
+
+    /**
+     * <p>
+     * This creates a server bound to the loopback address that keeps its games in registry.
+     * </p>
+     *
+     * @param port
+     *      The port to listen on, or 0 for any free port
+     * @param registry
+     *      The registry holding the hosted games
+     * @throws IOException if the socket cannot be bound
+     */
+    public GameServer(int port, SessionRegistry registry) throws IOException {
+        serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        connections = newConnectionExecutor();
+        this.registry = registry;
+    }
+
+    /**
+     * <p>
+     * This starts accepting connections on a background thread.
+     * </p>
+     *
+     * @post [ new connections are served until close is called ]
+     */
+    public void start() {
+        acceptThread = new Thread(this::acceptLoop, "connectx-accept");
+        acceptThread.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public SessionRegistry getRegistry() {
+        return registry;
+    }
+
+    public int getNumConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * <p>
+     * This stops accepting connections and closes the listening socket. Open connections end
+     * when their client disconnects.
+     * </p>
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdown();
+    }
+
+    private void acceptLoop() {
+        while(!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> serve(socket));
+            }
+            catch(IOException e) {
+                if(!serverSocket.isClosed()) {
+                    System.err.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        openConnections.incrementAndGet();
+        List<Integer> owned = new ArrayList<>();
+
+        try(Socket s = socket;
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+
+            while(true) {
+                int op = in.read();
+                if(op == -1) {
+                    break;
+                }
+
+                if(op == MoveProtocol.NEW_GAME) {
+                    newGame(in, out, owned);
+                }
+                else if(op == MoveProtocol.MOVE) {
+                    move(in, out);
+                }
+                else if(op == MoveProtocol.CLOSE) {
+                    int id = in.readInt();
+                    boolean removed = registry.close(id);
+                    owned.remove((Integer) id);
+                    MoveProtocol.writeReply(out, removed ? MoveProtocol.OK : MoveProtocol.UNKNOWN_GAME, id);
+                }
+                else {
+                    MoveProtocol.writeReply(out, MoveProtocol.BAD_REQUEST, op);
+                    break;
+                }
+
+                //only flush once every pipelined request has been answered
+                if(in.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
+        catch(EOFException | SocketException e) {
+            //client went away mid-request
+        }
+        catch(IOException e) {
+            System.err.println("Connection failed: " + e.getMessage());
+        }
+        finally {
+            for(int id : owned) {
+                registry.close(id);
+            }
+            openConnections.decrementAndGet();
+        }
+    }
+
+    private void newGame(DataInputStream in, DataOutputStream out, List<Integer> owned) throws IOException {
+        int rows = in.readUnsignedByte();
+        int cols = in.readUnsignedByte();
+        int numToWin = in.readUnsignedByte();
+        int players = in.readUnsignedByte();
+
+        if(!ConnectXGame.validate(rows, cols, players, numToWin).equals("")) {
+            MoveProtocol.writeReply(out, MoveProtocol.BAD_REQUEST, -1);
+            return;
+        }
+
+        int id = registry.create(rows, cols, numToWin, players);
+        owned.add(id);
+        MoveProtocol.writeReply(out, MoveProtocol.OK, id);
+    }
+
+    private void move(DataInputStream in, DataOutputStream out) throws IOException {
+        int id = in.readInt();
+        int col = in.readUnsignedByte();
+
+        int result = registry.move(id, col);
+        int status = SessionRegistry.status(result);
+        if(status == MoveProtocol.UNKNOWN_GAME) {
+            MoveProtocol.writeReply(out, status, id);
+        }
+        else {
+            MoveProtocol.writeReply(out, status, (SessionRegistry.row(result) << 8) | SessionRegistry.player(result));
+        }
+    }
+
+    /**
+     * <p>
+     * This creates an executor with one virtual thread per task when the JDK supports it (Java 21
+     * and later), falling back to a cached pool of daemon threads.
+     * </p>
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(null, r, "connectx-conn-" + count.incrementAndGet(), 256 * 1024);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package cpsc2150.extendedConnectX.server;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class is a load-generating client for {@link GameServer}. It opens a number of connections,
+ * keeps a number of games open on each, and plays random legal moves round robin across those
+ * games for a fixed time. Finished games are closed and replaced. It then reports moves per second
+ * and move latency percentiles.
+ * <p>
+ * Usage: {@code LoadGenerator [port|embedded] [connections] [gamesPerConnection] [seconds]
+ * [rows] [cols] [numToWin] [players]}. With {@code embedded} a server is started in this process.
+ *
+ * @version 3.0
+ */
+public class LoadGenerator {
+
+    private final int port;
+    private final int gamesPerConnection;
+    private final int rows;
+    private final int cols;
+    private final int numToWin;
+    private final int players;
+
+    public LoadGenerator(int port, int gamesPerConnection, int rows, int cols, int numToWin, int players) {
+        this.port = port;
+        this.gamesPerConnection = gamesPerConnection;
+        this.rows = rows;
+        this.cols = cols;
+        this.numToWin = numToWin;
+        this.players = players;
+    }
+
+    /**
+     * <p>
+     * This is the entry point of the load generator.
+     * </p>
+     *
+     * @param args
+     *      See the class description
+     */
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "embedded";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int gamesPer = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int rows = args.length > 4 ? Integer.parseInt(args[4]) : 6;
+        int cols = args.length > 5 ? Integer.parseInt(args[5]) : 7;
+        int numToWin = args.length > 6 ? Integer.parseInt(args[6]) : 4;
+        int players = args.length > 7 ? Integer.parseInt(args[7]) : 2;
+
+        GameServer server = null;
+        int port;
+        if(target.equals("embedded")) {
+            server = new GameServer(0);
+            server.start();
+            port = server.getPort();
+        }
+        else {
+            port = Integer.parseInt(target);
+        }
+
+        LoadGenerator generator = new LoadGenerator(port, gamesPer, rows, cols, numToWin, players);
+        generator.run(connections, seconds * 1000L);
+
+        if(server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * <p>
+     * This runs the load and prints the results.
+     * </p>
+     *
+     * @param connections
+     *      Number of client connections, each on its own thread
+     * @param millis
+     *      How long to generate load for
+     */
+    public void run(int connections, long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for(int i = 0; i < connections; i++) {
+            Worker worker = new Worker(i, deadline);
+            Thread thread = new Thread(worker, "load-" + i);
+            workers.add(worker);
+            threads.add(thread);
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        int total = 0;
+        int errors = 0;
+        for(Worker worker : workers) {
+            total += worker.count;
+            errors += worker.failed ? 1 : 0;
+        }
+
+        long[] all = new long[total];
+        int n = 0;
+        for(Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, all, n, worker.count);
+            n += worker.count;
+        }
+        Arrays.sort(all);
+
+        System.out.printf("connections=%d games=%d board=%dx%d k=%d players=%d%n", connections,
+                connections * gamesPerConnection, rows, cols, numToWin, players);
+        System.out.printf("moves=%d in %.2fs -> %.0f moves/sec, failed connections=%d%n", total, elapsed,
+                total / elapsed, errors);
+        System.out.printf("latency us: p50=%.1f p99=%.1f p999=%.1f max=%.1f%n", percentile(all, 0.50) / 1e3,
+                percentile(all, 0.99) / 1e3, percentile(all, 0.999) / 1e3, total == 0 ? 0 : all[total - 1] / 1e3);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if(sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+
+    /**
+     * <p>
+     * One connection playing its games until the deadline.
+     * </p>
+     */
+    private class Worker implements Runnable {
+        private final SplittableRandom random;
+        private final long deadline;
+        private final int[] ids = new int[gamesPerConnection];
+        private final int[][] heights = new int[gamesPerConnection][cols];
+        private long[] latencies = new long[1 << 12];
+        private int count;
+        private boolean failed;
+
+        Worker(int seed, long deadline) {
+            random = new SplittableRandom(seed);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+                for(int g = 0; g < gamesPerConnection; g++) {
+                    ids[g] = newGame(in, out, g);
+                }
+
+                while(System.nanoTime() < deadline) {
+                    for(int g = 0; g < gamesPerConnection; g++) {
+                        int col = pickColumn(heights[g]);
+
+                        long begin = System.nanoTime();
+                        MoveProtocol.writeMove(out, ids[g], col);
+                        out.flush();
+                        long reply = MoveProtocol.readReply(in);
+                        record(System.nanoTime() - begin);
+
+                        int status = MoveProtocol.replyStatus(reply);
+                        heights[g][col]++;
+                        if(status != ConnectXGame.MOVE_OK) {
+                            MoveProtocol.writeClose(out, ids[g]);
+                            out.flush();
+                            MoveProtocol.readReply(in);
+                            ids[g] = newGame(in, out, g);
+                        }
+                    }
+                }
+            }
+            catch(IOException e) {
+                failed = true;
+            }
+        }
+
+        private int newGame(DataInputStream in, DataOutputStream out, int g) throws IOException {
+            MoveProtocol.writeNewGame(out, rows, cols, numToWin, players);
+            out.flush();
+            long reply = MoveProtocol.readReply(in);
+            if(MoveProtocol.replyStatus(reply) != MoveProtocol.OK) {
+                throw new IOException("Server refused game settings");
+            }
+            Arrays.fill(heights[g], 0);
+            return MoveProtocol.replyValue(reply);
+        }
+
+        private int pickColumn(int[] height) {
+            int col = random.nextInt(cols);
+            while(height[col] >= rows) {
+                col = (col + 1) % cols;
+            }
+            return col;
+        }
+
+        private void record(long nanos) {
+            if(count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+}
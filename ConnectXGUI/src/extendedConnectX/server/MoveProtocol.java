@@ -0,0 +1,92 @@
+package cpsc2150.extendedConnectX.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * This class defines the binary protocol spoken between {@link GameServer} and its clients.
+ * <p>
+ * Every request starts with a one byte opcode:
+ * <ul>
+ *     <li>NEW_GAME: u8 rows, u8 cols, u8 numToWin, u8 players</li>
+ *     <li>MOVE: i32 gameId, u8 column</li>
+ *     <li>CLOSE: i32 gameId</li>
+ * </ul>
+ * Every reply is exactly REPLY_SIZE bytes: a u8 status followed by an i32 value. For NEW_GAME the
+ * value is the new game id, for MOVE it is (row &lt;&lt; 8) | [index of the player to move next].
+ * Move statuses are the result codes of {@link cpsc2150.extendedConnectX.controllers.ConnectXGame}.
+ * All integers are big-endian.
+ *
+ * @version 3.0
+ */
+public final class MoveProtocol {
+
+    public static final byte NEW_GAME = 1;
+    public static final byte MOVE = 2;
+    public static final byte CLOSE = 3;
+
+    /**
+     * <p>
+     * Statuses that are not move results. Move results use the ConnectXGame codes 0 to 5.
+     * </p>
+     */
+    public static final byte OK = 0;
+    public static final byte UNKNOWN_GAME = 6;
+    public static final byte BAD_REQUEST = 7;
+
+    public static final int REPLY_SIZE = 5;
+
+    private MoveProtocol() {
+    }
+
+    public static void writeNewGame(DataOutputStream out, int rows, int cols, int numToWin, int players)
+            throws IOException {
+        out.writeByte(NEW_GAME);
+        out.writeByte(rows);
+        out.writeByte(cols);
+        out.writeByte(numToWin);
+        out.writeByte(players);
+    }
+
+    public static void writeMove(DataOutputStream out, int gameId, int col) throws IOException {
+        out.writeByte(MOVE);
+        out.writeInt(gameId);
+        out.writeByte(col);
+    }
+
+    public static void writeClose(DataOutputStream out, int gameId) throws IOException {
+        out.writeByte(CLOSE);
+        out.writeInt(gameId);
+    }
+
+    public static void writeReply(DataOutputStream out, int status, int value) throws IOException {
+        out.writeByte(status);
+        out.writeInt(value);
+    }
+
+    /**
+     * <p>
+     * This reads a reply, returning the status in the high 32 bits and the value in the low 32 bits
+     * so that no object is allocated per reply.
+     * </p>
+     *
+     * @param in
+     *      The stream to read from
+     * @return (status &lt;&lt; 32) | (value &amp; 0xFFFFFFFF)
+     * @throws IOException if the stream fails or ends
+     */
+    public static long readReply(DataInputStream in) throws IOException {
+        int status = in.readUnsignedByte();
+        int value = in.readInt();
+        return ((long) status << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    public static int replyStatus(long reply) {
+        return (int) (reply >>> 32);
+    }
+
+    public static int replyValue(long reply) {
+        return (int) reply;
+    }
+}
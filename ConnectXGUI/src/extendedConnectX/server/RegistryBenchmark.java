@@ -0,0 +1,99 @@
+package cpsc2150.extendedConnectX.server;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class measures how move throughput on a {@link SessionRegistry} scales with the number of
+ * threads. Every thread plays random moves on its own games, so any slowdown beyond the core count
+ * comes from contention inside the registry. A registry with a single stripe is measured as well
+ * for comparison.
+ * <p>
+ * Usage: {@code RegistryBenchmark [gamesPerThread] [millisPerRun]}
+ *
+ * @version 3.0
+ */
+public class RegistryBenchmark {
+
+    private static final int ROWS = 6;
+    private static final int COLS = 7;
+    private static final int NUM_TO_WIN = 4;
+
+    /**
+     * <p>
+     * This is the benchmark entry point.
+     * </p>
+     *
+     * @param args
+     *      See the class description
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int gamesPerThread = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("cores=" + cores + " gamesPerThread=" + gamesPerThread);
+        System.out.printf("%7s %16s %16s%n", "threads", "striped moves/s", "1-lock moves/s");
+
+        for(int threads = 1; threads <= cores * 2; threads *= 2) {
+            double striped = run(new SessionRegistry(cores * 64, null), threads, gamesPerThread, millis);
+            double single = run(new SessionRegistry(1, null), threads, gamesPerThread, millis);
+            System.out.printf("%7d %16.0f %16.0f%n", threads, striped, single);
+        }
+    }
+
+    private static double run(SessionRegistry registry, int threads, int gamesPerThread, long millis)
+            throws InterruptedException {
+        AtomicLong moves = new AtomicLong();
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        List<Thread> workers = new ArrayList<>();
+
+        for(int t = 0; t < threads; t++) {
+            int seed = t;
+            workers.add(new Thread(() -> moves.addAndGet(play(registry, gamesPerThread, deadline, seed))));
+        }
+
+        long start = System.nanoTime();
+        for(Thread worker : workers) {
+            worker.start();
+        }
+        for(Thread worker : workers) {
+            worker.join();
+        }
+
+        return moves.get() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static long play(SessionRegistry registry, int games, long deadline, int seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] ids = new int[games];
+        int[][] heights = new int[games][COLS];
+        for(int g = 0; g < games; g++) {
+            ids[g] = registry.create(ROWS, COLS, NUM_TO_WIN, 2);
+        }
+
+        long count = 0;
+        while(System.nanoTime() < deadline) {
+            for(int g = 0; g < games; g++) {
+                int col = random.nextInt(COLS);
+                while(heights[g][col] >= ROWS) {
+                    col = (col + 1) % COLS;
+                }
+                heights[g][col]++;
+                count++;
+
+                if(SessionRegistry.status(registry.move(ids[g], col)) != ConnectXGame.MOVE_OK) {
+                    registry.close(ids[g]);
+                    ids[g] = registry.create(ROWS, COLS, NUM_TO_WIN, 2);
+                    heights[g] = new int[COLS];
+                }
+            }
+        }
+
+        return count;
+    }
+}
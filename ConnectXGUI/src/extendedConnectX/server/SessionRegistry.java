@@ -0,0 +1,272 @@
+package cpsc2150.extendedConnectX.server;
+
+import cpsc2150.extendedConnectX.controllers.ConnectXGame;
+import cpsc2150.extendedConnectX.models.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class maps game ids to live game sessions for a server hosting many games. Moves on a game
+ * take the lock of the game's stripe (id modulo the number of stripes), so moves on games in
+ * different stripes never wait for each other and no lock is shared by every game.
+ * <p>
+ * Games that have not been touched for a while can be evicted to disk. An evicted game is saved
+ * as its board's {@code toString} text plus whose turn it is, and is loaded back the next time it
+ * is used.
+ *
+ * @version 3.0
+ *
+ * @invariant [ stripes.length is a power of two ]
+ * @invariant [ a game id is live, evicted to evictDir, or unknown, never more than one ]
+ */
+public class SessionRegistry {
+
+    /**
+     * <p>
+     * Results packed into the int returned by move: (status &lt;&lt; 16) | (row &lt;&lt; 8) | player.
+     * </p>
+     */
+    public static int status(int moveResult) {
+        return moveResult >>> 16;
+    }
+
+    public static int row(int moveResult) {
+        return (moveResult >>> 8) & 0xFF;
+    }
+
+    public static int player(int moveResult) {
+        return moveResult & 0xFF;
+    }
+
+    /**
+     * <p>
+     * A live game and the last time it was used.
+     * </p>
+     */
+    private static final class Session {
+        final ConnectXGame game;
+        volatile long lastUsed;
+
+        Session(ConnectXGame game) {
+            this.game = game;
+            lastUsed = System.nanoTime();
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, Session> live = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final Path evictDir;
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * <p>
+     * This creates a registry.
+     * </p>
+     *
+     * @param numStripes
+     *      The number of locks, rounded up to a power of two
+     * @param evictDir
+     *      The directory evicted games are saved to, or null to never evict
+     */
+    public SessionRegistry(int numStripes, Path evictDir) {
+        int size = 1;
+        while(size < numStripes) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for(int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+        this.evictDir = evictDir;
+    }
+
+    /**
+     * <p>
+     * This creates a registry with enough stripes for the machine and no eviction.
+     * </p>
+     */
+    public SessionRegistry() {
+        this(Runtime.getRuntime().availableProcessors() * 64, null);
+    }
+
+    /**
+     * <p>
+     * This starts a new game.
+     * </p>
+     *
+     * @return the new game's id
+     *
+     * @pre ConnectXGame.validate(rows, cols, players, numToWin) is empty
+     */
+    public int create(int rows, int cols, int numToWin, int players) {
+        int id = nextId.incrementAndGet();
+        live.put(id, new Session(new ConnectXGame(ConnectXGame.createBoard(rows, cols, numToWin), players)));
+        return id;
+    }
+
+    /**
+     * <p>
+     * This plays the current player's token in a column of a game.
+     * </p>
+     *
+     * @param id
+     *      The game id
+     * @param col
+     *      The column to play in
+     * @return (status &lt;&lt; 16) | (row &lt;&lt; 8) | [player to move next], where status is a
+     * ConnectXGame result or MoveProtocol.UNKNOWN_GAME
+     */
+    public int move(int id, int col) {
+        ReentrantLock lock = stripes[id & mask];
+        lock.lock();
+        try {
+            Session session = lookup(id);
+            if(session == null) {
+                return MoveProtocol.UNKNOWN_GAME << 16;
+            }
+
+            session.lastUsed = System.nanoTime();
+            int result = session.game.playMove(col);
+            return (result << 16) | ((session.game.getLastRow() & 0xFF) << 8) | session.game.getCurrentPlayer();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <p>
+     * This ends a game, whether it is live or evicted.
+     * </p>
+     *
+     * @return true if the game existed
+     */
+    public boolean close(int id) {
+        ReentrantLock lock = stripes[id & mask];
+        lock.lock();
+        try {
+            boolean removed = live.remove(id) != null;
+            if(evictDir != null) {
+                removed |= Files.deleteIfExists(file(id));
+            }
+            return removed;
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * <p>
+     * This saves every game that has not been used for idleMillis to disk and drops it from memory.
+     * </p>
+     *
+     * @param idleMillis
+     *      How long a game must be unused before it is evicted
+     * @return the number of games evicted
+     *
+     * @pre [ the registry was created with an evict directory ]
+     */
+    public int evictIdle(long idleMillis) throws IOException {
+        long cutoff = System.nanoTime() - idleMillis * 1_000_000L;
+        int evicted = 0;
+
+        for(Map.Entry<Integer, Session> entry : live.entrySet()) {
+            if(entry.getValue().lastUsed - cutoff > 0) {
+                continue;
+            }
+
+            int id = entry.getKey();
+            ReentrantLock lock = stripes[id & mask];
+            lock.lock();
+            try {
+                //the game may have been used or closed since the scan saw it
+                Session session = live.get(id);
+                if(session != null && session.lastUsed - cutoff <= 0) {
+                    save(id, session.game);
+                    live.remove(id);
+                    evicted++;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        return evicted;
+    }
+
+    public int getNumLive() {
+        return live.size();
+    }
+
+    //caller holds the stripe lock for id
+    private Session lookup(int id) {
+        Session session = live.get(id);
+        if(session != null || evictDir == null) {
+            return session;
+        }
+
+        try {
+            ConnectXGame game = load(file(id));
+            Files.delete(file(id));
+            session = new Session(game);
+            live.put(id, session);
+            return session;
+        }
+        catch(NoSuchFileException e) {
+            return null;
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path file(int id) {
+        return evictDir.resolve(id + ".game");
+    }
+
+    private void save(int id, ConnectXGame game) throws IOException {
+        IGameBoard board = game.getBoard();
+        String header = board.getNumRows() + " " + board.getNumColumns() + " " + board.getNumToWin() + " " +
+                game.getNumPlayers() + " " + game.getCurrentPlayer() + " " + game.isOver() + "\n";
+        Files.writeString(file(id), header + board, StandardCharsets.UTF_8);
+    }
+
+    private static ConnectXGame load(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        String[] header = lines.get(0).split(" ");
+        int rows = Integer.parseInt(header[0]);
+        int cols = Integer.parseInt(header[1]);
+        IGameBoard board = ConnectXGame.createBoard(rows, cols, Integer.parseInt(header[2]));
+
+        //line 1 is the column numbers, then the rows from the top; each cell is "<token> |"
+        for(int row = 0; row < rows; row++) {
+            String line = lines.get(1 + rows - row);
+            for(int col = 0; col < cols; col++) {
+                char token = line.charAt(1 + 3 * col);
+                if(token != ' ') {
+                    board.placeToken(token, col);
+                }
+            }
+        }
+
+        return new ConnectXGame(board, Integer.parseInt(header[3]), Integer.parseInt(header[4]),
+                Boolean.parseBoolean(header[5]));
+    }
+}
@@ -9,6 +9,7 @@ import java.awt.event.ActionListener;
 import java.util.*;
 import java.util.List;
 import javax.swing.*;
+import javax.swing.border.Border;
 
 /**
  * This class is the view of our Extended Connect X
@@ -26,8 +27,10 @@ public class ConnectXView extends JFrame implements ActionListener {
     private ConnectXController controller;
 
     private final JTextArea message;
+    private final JCheckBox hintBox;
     private final List<JButton> buttons;
     private final List<JButton> colButtons;
+    private final List<Border> colBorders;
 
     private static final int LINES_IN_TEXT = 4, LINE_TEXT_LENGTHS = 20;
     private static int ROWS_IN_BUTTON_PANEL;
@@ -49,6 +52,7 @@ public class ConnectXView extends JFrame implements ActionListener {
     public ConnectXView(int row, int col) {
         //call super constructor to make JFrame
         super("Connect X Game");
+        TimedRepaintManager.install();
         ROWS_IN_BUTTON_PANEL = row;
         COLUMNS_IN_BUTTON_PANEL = col;
 
@@ -62,6 +66,10 @@ public class ConnectXView extends JFrame implements ActionListener {
         this.message.setWrapStyleWord(true);
         message.setFont(message.getFont().deriveFont(fontSize));
 
+        //checkbox to turn on the column analysis hints
+        hintBox = new JCheckBox("Hints");
+        hintBox.setFont(message.getFont().deriveFont(fontSize / 2));
+
         //variable i added for color-alternating columns
         int count = 1;
 
@@ -87,6 +95,12 @@ public class ConnectXView extends JFrame implements ActionListener {
             colButtons.add(button);
         }
 
+        //the usual borders, put back when a column stops being highlighted
+        colBorders = new ArrayList<>();
+        for (JButton button : colButtons) {
+            colBorders.add(button.getBorder());
+        }
+
         //Add buttons to our list of buttons
         //These buttons will be used to create our grid for our game board
         //Buttons would not generally be used like this, however its an easy way to get nice rectangular cells for our grid
@@ -109,8 +123,12 @@ public class ConnectXView extends JFrame implements ActionListener {
         //create layout for the screen
         this.setLayout(new GridLayout(ROWS_IN_BUTTON_PANEL + 2, 1));
         
-        //add our message box on top
-        this.add(message);
+        //add our message box on top, with the hints checkbox beside it
+        JPanel messagePanel = new JPanel(new BorderLayout());
+        messagePanel.add(message, BorderLayout.CENTER);
+        hintBox.addActionListener(this);
+        messagePanel.add(hintBox, BorderLayout.EAST);
+        this.add(messagePanel);
 
         //create a panel with buttons to select a column
         JPanel colButtonPanel = new JPanel(new GridLayout(1, COLUMNS_IN_BUTTON_PANEL));
@@ -204,6 +222,11 @@ public class ConnectXView extends JFrame implements ActionListener {
             controller.processButtonClick(column);
         }
 
+        //or the hints checkbox?
+        else if (source == hintBox) {
+            controller.setAnalysisMode(hintBox.isSelected());
+        }
+
         /*
          * Set the cursor back to normal (because we changed it at the beginning
          * of the method body)
@@ -247,4 +270,56 @@ public class ConnectXView extends JFrame implements ActionListener {
         //set the text of the button
         buttons.get(index).setText(Character.toString(player));
     }
+
+    /**
+     * <p>
+     * This method shows the analysis result for a column on its button.
+     * </p>
+     *
+     * @param col
+     *      The column of the button
+     * @param outcome
+     *      'W' if playing there wins, 'L' if it loses, 'D' if it draws, '?' if it is not yet known,
+     *      or ' ' to remove the hint
+     *
+     * @pre 0 <= col < COLUMNS_IN_BUTTON_PANEL
+     * @post [ the column button shows its number followed by the outcome ]
+     */
+    public void setColumnHint(int col, char outcome) {
+        JButton button = colButtons.get(col);
+
+        if (outcome == ' ') {
+            button.setText(String.valueOf(col + 1));
+            button.setForeground(Color.BLACK);
+            return;
+        }
+
+        button.setText((col + 1) + " " + outcome);
+        if (outcome == 'W') {
+            button.setForeground(new Color(0, 128, 0)); //green
+        } else if (outcome == 'L') {
+            button.setForeground(Color.RED);
+        } else {
+            button.setForeground(Color.BLACK);
+        }
+    }
+
+    /**
+     * <p>
+     * This method highlights a column button as a must-play column, one that wins for the
+     * player to move or for the player after them.
+     * </p>
+     *
+     * @param col
+     *      The column of the button
+     * @param mustPlay
+     *      true to highlight the button, false to show it as usual
+     *
+     * @pre 0 <= col < COLUMNS_IN_BUTTON_PANEL
+     * @post [ the column button has a thick red border if mustPlay, otherwise its usual border ]
+     */
+    public void setColumnThreat(int col, boolean mustPlay) {
+        JButton button = colButtons.get(col);
+        button.setBorder(mustPlay ? BorderFactory.createLineBorder(Color.RED, 4) : colBorders.get(col));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package cpsc2150.extendedConnectX.views;
+
+import cpsc2150.extendedConnectX.metrics.Metrics;
+import cpsc2150.extendedConnectX.metrics.RepaintEvent;
+import javax.swing.*;
+
+/**
+ * This class is a Swing repaint manager that records a {@link RepaintEvent} for every pass that
+ * paints the dirty regions of our windows, so Flight Recorder can show how long the event
+ * dispatch thread spends repainting.
+ *
+ * @version 3.0
+ */
+public class TimedRepaintManager extends RepaintManager {
+
+    /**
+     * <p>
+     * This installs the timed repaint manager, once, as the current repaint manager, unless
+     * Flight Recorder events are turned off.
+     * </p>
+     *
+     * @pre [ called on the event dispatch thread or before any window is shown ]
+     * @post [ if Metrics.EVENTS, RepaintManager.currentManager is a TimedRepaintManager ]
+     */
+    public static void install() {
+        if(Metrics.EVENTS && !(RepaintManager.currentManager((JComponent) null) instanceof TimedRepaintManager)) {
+            RepaintManager.setCurrentManager(new TimedRepaintManager());
+        }
+    }
+
+    @Override
+    public void paintDirtyRegions() {
+        RepaintEvent event = new RepaintEvent();
+        event.begin();
+        super.paintDirtyRegions();
+        event.commit();
+    }
+}